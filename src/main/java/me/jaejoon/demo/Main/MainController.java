@@ -12,7 +12,7 @@ public class MainController {
     @GetMapping("/")
     public String mainHome(Model model , @CurrentUser Account account){
         if(account != null) {
-            model.addAttribute(account);
+            model.addAttribute("account", account);
         }
         return "index";
     }
@@ -2,8 +2,11 @@ package me.jaejoon.demo.account;
 
 import lombok.RequiredArgsConstructor;
 import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.domain.EmailTokenPurpose;
 import me.jaejoon.demo.form.SignUpForm;
 import me.jaejoon.demo.validation.SignUpFormValidation;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
@@ -11,7 +14,9 @@ import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.Locale;
 
 @Controller
 @RequiredArgsConstructor
@@ -20,6 +25,10 @@ public class AccountController {
     private final SignUpFormValidation signUpFormValidation;
     private final AccountService service;
     private final AccountRepository repository;
+    private final EmailRateLimiter emailRateLimiter;
+    private final EmailTokenService emailTokenService;
+    private final AccountCounter accountCounter;
+    private final AccountUniqueKeys accountUniqueKeys;
 
     @InitBinder("signUpForm")
     public void initBinder(WebDataBinder webDataBinder){
@@ -37,42 +46,61 @@ public class AccountController {
         if(errors.hasErrors()){
             return "account/sign-up";
         }
-        Account account = service.processNewAccount(signUpForm);
+        Account account;
+        try {
+            account = service.processNewAccount(signUpForm);
+        } catch (DataIntegrityViolationException e) {
+            // filter 에 없던 값이 다른 곳에서 먼저 저장된 경우. DB 로 다시 확인해 입력 오류로 돌려준다.
+            rejectTakenKeys(signUpForm, errors);
+            if (!errors.hasErrors()) {
+                throw e;
+            }
+            return "account/sign-up";
+        }
+        // 가입하면서 인증 메일을 보냈으므로 한 시간 동안은 다시 보내지 않는다.
+        emailRateLimiter.sent("account:" + account.getId());
         service.login(account);
         return "redirect:/";
     }
 
+    private void rejectTakenKeys(SignUpForm signUpForm, Errors errors) {
+        if (accountUniqueKeys.emailExistsInDatabase(signUpForm.getEmail())) {
+            errors.rejectValue("email","email.invalid", new Object[]{signUpForm.getEmail()},"이미 사용중인 이메일입니다");
+        }
+        if (accountUniqueKeys.nicknameExistsInDatabase(signUpForm.getNickname())) {
+            errors.rejectValue("nickname","nickname.invalid",new Object[]{signUpForm.getNickname()},"이미 사용중인 닉네임 입니다");
+        }
+    }
+
     @GetMapping("/check-email-token")
     public String checkEmailToken(String token ,String email, Model model){
-        Account account = repository.findByEmail(email);
+        Account account = emailTokenService.consume(token, email, EmailTokenPurpose.CHECK_EMAIL).orElse(null);
         String view = "account/checked-email";
         if(account ==null){
-            model.addAttribute("error","not.account");
-            return view;
-        }
-        if(!account.emailTokenValid(token)){
             model.addAttribute("error","wrong.token");
             return view;
         }
         service.completeCheck(account);
-        model.addAttribute("numberOfUser",repository.count());
+        model.addAttribute("numberOfUser",accountCounter.get());
         model.addAttribute("nickName",account.getNickname());
         return view;
     }
 
     @GetMapping("/check-email")
     public String checkEmail(@CurrentUser Account account , Model model){
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         return "account/check-email";
     }
 
     @GetMapping("/resend-email")
-    public String reSendEmail(@CurrentUser Account account,Model model){
-        if (!account.canSendConfirmEmail()){
+    public String reSendEmail(@AuthenticationPrincipal UserAccount userAccount, HttpServletRequest request, Model model){
+        // 계정을 읽기 전에 거른다.
+        if (!emailRateLimiter.tryAcquire("account:" + userAccount.getId(), request.getRemoteAddr())){
             model.addAttribute("error","1시간 이내에 이메일을 재전송 할 수 없습니다");
-            model.addAttribute("email",account.getEmail());
+            model.addAttribute("email", repository.findEmailById(userAccount.getId()));
             return "account/check-email";
         }
+        Account account = repository.findById(userAccount.getId()).orElseThrow();
         service.sendSignUpConfirmEmail(account);
         return "redirect:/";
     }
@@ -102,19 +130,18 @@ public class AccountController {
     }
 
     @PostMapping("/email-login")
-    public String emailLogin(@RequestParam String email , Model model , RedirectAttributes attributes){
+    public String emailLogin(@RequestParam String email , HttpServletRequest request, Model model , RedirectAttributes attributes){
         String view = "account/email-login";
+        if(!emailRateLimiter.tryAcquire(email.toLowerCase(Locale.ROOT), request.getRemoteAddr())){
+            model.addAttribute("error","1시간 이내에 이메일 로그인을 여러번 요청할 수 없습니다");
+            return view;
+        }
         Account account = repository.findByEmail(email);
         if(account == null){
             model.addAttribute("error","존재하지 않는 이메일입니다 ");
             model.addAttribute("email",email);
             return view;
         }
-
-        if(!account.canSendConfirmEmail()){
-            model.addAttribute("error","1시간 이내에 이메일 로그인을 여러번 요청할 수 없습니다");
-            return view;
-        }
         service.sendLoginLink(account);
         attributes.addFlashAttribute("email", email);
         return "redirect:/check-login-email";
@@ -123,8 +150,8 @@ public class AccountController {
     @GetMapping("/login-by-email")
     public String loginByEmail(String token, String email, Model model) {
         String view = "account/logged-in-by-email";
-        Account account = repository.findByEmail(email);
-        if(account == null || !account.emailTokenValid(token)){
+        Account account = emailTokenService.consume(token, email, EmailTokenPurpose.LOGIN).orElse(null);
+        if(account == null){
             model.addAttribute("error", "로그인할 수 없습니다.");
             return view;
         }
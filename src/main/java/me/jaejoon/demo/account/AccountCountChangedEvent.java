@@ -0,0 +1,14 @@
+package me.jaejoon.demo.account;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 계정을 만들거나(+1) 지우면(-1) 발행한다. AccountCounter 가 커밋된 뒤에 반영한다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class AccountCountChangedEvent {
+
+    private final int delta;
+}
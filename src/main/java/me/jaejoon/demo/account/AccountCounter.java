@@ -0,0 +1,55 @@
+package me.jaejoon.demo.account;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 전체 계정 수. 매번 count(*) 로 테이블 전체를 읽지 않고 가입/탈퇴가 커밋될 때 더하고 뺀다.
+ * 다른 서버에서 가입했거나 DB 에서 직접 지운 것은 주기적으로 count(*) 를 다시 읽어 맞춘다.
+ * account.count 지표로 나간다.
+ */
+@Slf4j
+@Component
+public class AccountCounter {
+
+    private final AccountRepository accountRepository;
+    private final AtomicLong count = new AtomicLong();
+    private volatile boolean loaded;
+
+    public AccountCounter(AccountRepository accountRepository, MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        Gauge.builder("account.count", this, AccountCounter::get).register(meterRegistry);
+    }
+
+    public long get() {
+        if (!loaded) {
+            reconcile();
+        }
+        return count.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountCountChanged(AccountCountChangedEvent event) {
+        count.addAndGet(event.getDelta());
+    }
+
+    /**
+     * DB 의 계정 수로 다시 맞춘다. 세는 동안 커밋된 가입은 빠질 수 있지만 다음에 다시 맞춘다.
+     */
+    @Scheduled(fixedDelayString = "${app.account-count.reconcile-delay:PT10M}")
+    public long reconcile() {
+        long counted = accountRepository.count();
+        long previous = count.getAndSet(counted);
+        if (loaded && previous != counted) {
+            log.info("계정 수를 {} 에서 {} 로 맞췄습니다.", previous, counted);
+        }
+        loaded = true;
+        return counted;
+    }
+}
@@ -0,0 +1,21 @@
+package me.jaejoon.demo.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 로그인 확인에 필요한 계정 정보만 담는다.
+ * 캐시에 넣어 두고 공유하므로 바꿀 수 없게 둔다.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountCredentials {
+
+    private final Long id;
+
+    private final String nickname;
+
+    private final String email;
+
+    private final String password;
+}
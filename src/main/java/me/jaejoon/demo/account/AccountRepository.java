@@ -1,7 +1,12 @@
 package me.jaejoon.demo.account;
 
+import me.jaejoon.demo.config.CacheConfig;
 import me.jaejoon.demo.domain.Account;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 
@@ -16,4 +21,18 @@ public interface AccountRepository extends JpaRepository<Account,Long> {
 
     Account findByNickname(String nickNameOrEmail);
 
+    @Query("select a.email from Account a where a.id = :id")
+    String findEmailById(@Param("id") Long id);
+
+    // 닉네임에는 @ 가 들어갈 수 없으므로 닉네임과 이메일이 같은 계정이 둘 나오지 않는다.
+    @Cacheable(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, unless = "#result == null")
+    @Query("select new me.jaejoon.demo.account.AccountCredentials(a.id, a.nickname, a.email, a.password) from Account a " +
+            "where a.nickname = :nicknameOrEmail or a.email = :nicknameOrEmail")
+    AccountCredentials findCredentials(@Param("nicknameOrEmail") String nicknameOrEmail);
+
+    @Transactional
+    @Modifying
+    @Query("update Account a set a.password = :password where a.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
 }
@@ -2,14 +2,21 @@ package me.jaejoon.demo.account;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import me.jaejoon.demo.config.AppProperties;
+import me.jaejoon.demo.avatar.AvatarService;
+import me.jaejoon.demo.config.CacheConfig;
 import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.domain.EmailTokenPurpose;
 import me.jaejoon.demo.domain.Tag;
 import me.jaejoon.demo.domain.Zone;
 import me.jaejoon.demo.form.*;
 import me.jaejoon.demo.mail.EmailMessage;
-import me.jaejoon.demo.mail.EmailService;
+import me.jaejoon.demo.mail.EmailOutbox;
+import me.jaejoon.demo.mail.SendMailTemplate;
+import me.jaejoon.demo.tag.TagUsageChangedEvent;
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -17,13 +24,13 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.util.StringUtils;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -35,41 +42,42 @@ import java.util.Set;
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
-public class AccountService implements UserDetailsService {
+public class AccountService implements UserDetailsService, UserDetailsPasswordService {
     private final AccountRepository accountRepository;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
-    private final EmailService emailService;
-    private final AppProperties properties;
-    private final TemplateEngine templateEngine;
+    private final EmailOutbox emailOutbox;
+    private final SendMailTemplate sendMailTemplate;
+    private final EmailTokenService emailTokenService;
+    private final AccountUniqueKeys accountUniqueKeys;
+    private final AvatarService avatarService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public void sendSignUpConfirmEmail(Account newAccount) {
-        newAccount.generateEmailCheckToken();
-        Context context = new Context();
-        context.setVariable("nickname",newAccount.getNickname());
-        context.setVariable("message","이메일을 인증하려면 아래를 클릭하세요");
-        context.setVariable("host",properties.getHost());
-        context.setVariable("link","/check-email-token?token=" + newAccount.getEmailCheckToken()
-                +"&email="+ newAccount.getEmail());
-        context.setVariable("linkName","이메일 인증");
-
-        String template = templateEngine.process("mail/send-mail", context);
+        String token = emailTokenService.issue(newAccount, EmailTokenPurpose.CHECK_EMAIL);
+        String template = sendMailTemplate.render(newAccount.getNickname(),
+                "이메일을 인증하려면 아래를 클릭하세요",
+                "/check-email-token?token=" + token + "&email=" + newAccount.getEmail(),
+                "이메일 인증");
         EmailMessage emailMessage = EmailMessage.builder()
                 .to(newAccount.getEmail())
                 .subject("회원가입 인증 메일")
                 .message(template)
                 .build();
-        emailService.sendEmail(emailMessage);
+        emailOutbox.enqueue(emailMessage);
     }
 
     private Account saveNewAccount(SignUpForm signUpForm) {
         signUpForm.setPassword(passwordEncoder.encode(signUpForm.getPassword()));
         Account account = modelMapper.map(signUpForm, Account.class);
-        return accountRepository.save(account);
+        accountUniqueKeys.addEmail(account.getEmail());
+        accountUniqueKeys.addNickname(account.getNickname());
+        // unique 제약 위반을 메일 발송 준비 전에 알 수 있도록 바로 insert 한다.
+        return accountRepository.saveAndFlush(account);
     }
     public Account processNewAccount(SignUpForm signUpForm) {
         Account account = saveNewAccount(signUpForm);
-        account.generateEmailCheckToken();
+        eventPublisher.publishEvent(new AccountCountChangedEvent(1));
         sendSignUpConfirmEmail(account);
         return account;
     }
@@ -80,21 +88,34 @@ public class AccountService implements UserDetailsService {
                 account.getPassword(),
                 List.of(new SimpleGrantedAuthority("ROLE_USER"))
         );
+        // 세션에 비밀번호 해시를 남기지 않는다.
+        token.eraseCredentials();
 
         SecurityContextHolder.getContext().setAuthentication(token);
     }
 
+    // 인증이 끝나면 UserDetails 의 비밀번호를 지우므로 캐시에는 값만 두고 UserAccount 는 매번 새로 만든다.
     @Transactional(readOnly = true)
     @Override
     public UserDetails loadUserByUsername(String nickNameOrEmail) throws UsernameNotFoundException {
-        Account account = accountRepository.findByNickname(nickNameOrEmail);
-        if (account == null){
-            account = accountRepository.findByEmail(nickNameOrEmail);
-        }
-        if (account == null){
+        AccountCredentials credentials = accountRepository.findCredentials(nickNameOrEmail);
+        if (credentials == null){
             throw  new UsernameNotFoundException(nickNameOrEmail);
         }
-        return new UserAccount(account);
+        return new UserAccount(credentials);
+    }
+
+    // 로그인에 성공했는데 저장된 해시의 strength 가 지금 설정과 다르면 Spring Security 가 새 해시로 부른다.
+    // 닉네임과 이메일 어느 쪽으로 로그인했든 두 key 의 캐시를 모두 지운다.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, key = "#user.username"),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, key = "#user.email")})
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserAccount userAccount = (UserAccount) user;
+        accountRepository.updatePassword(userAccount.getId(), newPassword);
+        return new UserAccount(new AccountCredentials(userAccount.getId(), userAccount.getUsername(),
+                userAccount.getEmail(), newPassword));
     }
 
     public void completeCheck(Account account) {
@@ -102,11 +123,19 @@ public class AccountService implements UserDetailsService {
         login(account);
     }
 
+    // 이미지가 잘못되면 InvalidAvatarException 을 던지고 아무것도 바꾸지 않는다.
     public void updateProfile(Account account, Profile profile) {
+        String avatar = StringUtils.hasText(profile.getProfileImage())
+                ? avatarService.store(profile.getProfileImage())
+                : account.getAvatar();
         modelMapper.map(profile,account);
+        account.setAvatar(avatar);
         accountRepository.save(account);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, key = "#account.nickname"),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, key = "#account.email")})
     public void updatePassword(Account account, PasswordForm form) {
         account.setPassword(passwordEncoder.encode(form.getNewPasswordConfirm()));
         accountRepository.save(account);
@@ -117,35 +146,37 @@ public class AccountService implements UserDetailsService {
         accountRepository.save(account);
     }
 
+    // 바뀌기 전 닉네임으로 지워야 하므로 key 는 호출 전에 계산한다.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, key = "#account.nickname", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNT_CREDENTIALS, key = "#account.email", beforeInvocation = true)})
     public void updateNickName(Account account, NicknameForm nicknameForm) {
         modelMapper.map(nicknameForm,account);
-        accountRepository.save(account);
+        accountUniqueKeys.addNickname(account.getNickname());
+        // 제약 위반이면 principal 을 바꾸기 전에 실패하도록 바로 update 한다.
+        accountRepository.saveAndFlush(account);
         login(account);
     }
 
     public void sendLoginLink(Account account) {
-        account.generateEmailCheckToken();
-        Context context = new Context();
-        context.setVariable("nickname",account.getNickname());
-        context.setVariable("message","이메일 로그인을 이용하기 위해 아래를 클릭하세요");
-        context.setVariable("host",properties.getHost());
-        context.setVariable("link","/login-by-email?token=" + account.getEmailCheckToken() +
-                "&email=" + account.getEmail());
-        context.setVariable("linkName","로그인");
-
-        String template = templateEngine.process("mail/send-mail", context);
+        String token = emailTokenService.issue(account, EmailTokenPurpose.LOGIN);
+        String template = sendMailTemplate.render(account.getNickname(),
+                "이메일 로그인을 이용하기 위해 아래를 클릭하세요",
+                "/login-by-email?token=" + token + "&email=" + account.getEmail(),
+                "로그인");
         EmailMessage emailMessage = EmailMessage.builder()
                 .to(account.getEmail())
                 .subject("이메일 로그인 인증 메일")
                 .message(template)
                 .build();
-        emailService.sendEmail(emailMessage);
+        emailOutbox.enqueue(emailMessage);
 
     }
 
     public void addTag(Account account, Tag tag) {
         Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(a ->a.getTags().add(tag));
+        byId.filter(a -> a.getTags().add(tag))
+                .ifPresent(a -> eventPublisher.publishEvent(new TagUsageChangedEvent(tag.getTitle(), 1)));
     }
 
     public Set<Tag> getTags(Account account) {
@@ -155,7 +186,8 @@ public class AccountService implements UserDetailsService {
 
     public void removeTag(Account account, Tag tag) {
         Optional<Account> byId = accountRepository.findById(account.getId());
-        byId.ifPresent(a-> a.getTags().remove(tag));
+        byId.filter(a -> a.getTags().remove(tag))
+                .ifPresent(a -> eventPublisher.publishEvent(new TagUsageChangedEvent(tag.getTitle(), -1)));
     }
 
     public Set<Zone> getZoneTag(Account account) {
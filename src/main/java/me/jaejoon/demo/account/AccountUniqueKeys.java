@@ -0,0 +1,58 @@
+package me.jaejoon.demo.account;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.jaejoon.demo.config.AppProperties;
+import me.jaejoon.demo.config.UniqueKeyFilter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이메일, 닉네임 중복 확인. 사용 중이 아닌 것이 확실하면 DB 를 보지 않는다.
+ */
+@Component
+public class AccountUniqueKeys {
+
+    private final AccountRepository accountRepository;
+    private final UniqueKeyFilter emails;
+    private final UniqueKeyFilter nicknames;
+
+    public AccountUniqueKeys(AccountRepository accountRepository, JdbcTemplate jdbcTemplate,
+                             AppProperties properties, MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        double fpp = properties.getUniqueFilter().getFpp();
+        this.emails = new UniqueKeyFilter("account.email", jdbcTemplate, "account", "email", fpp, meterRegistry);
+        this.nicknames = new UniqueKeyFilter("account.nickname", jdbcTemplate, "account", "nickname", fpp, meterRegistry);
+    }
+
+    public boolean emailExists(String email) {
+        return emails.exists(email, accountRepository::existsByEmail);
+    }
+
+    public boolean nicknameExists(String nickname) {
+        return nicknames.exists(nickname, accountRepository::existsByNickname);
+    }
+
+    // 저장하다 unique 제약에 걸렸을 때 어느 값이 겹쳤는지 DB 로 확인한다.
+    public boolean emailExistsInDatabase(String email) {
+        return emails.existsInDatabase(email);
+    }
+
+    public boolean nicknameExistsInDatabase(String nickname) {
+        return nicknames.existsInDatabase(nickname);
+    }
+
+    public void addEmail(String email) {
+        emails.add(email);
+    }
+
+    public void addNickname(String nickname) {
+        nicknames.add(nickname);
+    }
+
+    @Scheduled(fixedDelayString = "${app.unique-filter.rebuild-delay:PT10M}")
+    public void rebuild() {
+        emails.rebuild();
+        nicknames.rebuild();
+    }
+}
@@ -0,0 +1,42 @@
+package me.jaejoon.demo.account;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.jaejoon.demo.config.AppProperties;
+import me.jaejoon.demo.config.TokenBucketRateLimiter;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메일을 보내게 하는 요청(인증 메일 재전송, 이메일 로그인)을 계정을 읽거나 메일을 만들기 전에 거른다.
+ * 받는 사람마다, 그리고 요청한 IP 마다 따로 센다.
+ */
+@Component
+public class EmailRateLimiter {
+
+    private final TokenBucketRateLimiter byRecipient;
+    private final TokenBucketRateLimiter byIp;
+
+    public EmailRateLimiter(AppProperties properties, MeterRegistry meterRegistry) {
+        AppProperties.RateLimit rateLimit = properties.getRateLimit();
+        this.byRecipient = new TokenBucketRateLimiter("email.recipient", rateLimit.getRecipient(),
+                rateLimit.getMaxKeys(), meterRegistry);
+        this.byIp = new TokenBucketRateLimiter("email.ip", rateLimit.getIp(), rateLimit.getMaxKeys(), meterRegistry);
+    }
+
+    // 요청 없이 보낸 메일(가입 인증 메일)도 받는 사람의 횟수로 센다.
+    public void sent(String recipient) {
+        byRecipient.tryAcquire(recipient);
+    }
+
+    // IP 에서 거절되면 받는 사람의 횟수는 쓰지 않고, 받는 사람에서 거절되면 IP 의 횟수를 돌려준다.
+    // 그래서 막힌 주소 하나로 계속 요청해도 같은 IP 의 다른 주소는 막히지 않는다.
+    public boolean tryAcquire(String recipient, String ip) {
+        if (!byIp.tryAcquire(ip)) {
+            return false;
+        }
+        if (byRecipient.tryAcquire(recipient)) {
+            return true;
+        }
+        byIp.refund(ip);
+        return false;
+    }
+}
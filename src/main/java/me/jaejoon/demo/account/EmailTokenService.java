@@ -0,0 +1,116 @@
+package me.jaejoon.demo.account;
+
+import lombok.extern.slf4j.Slf4j;
+import me.jaejoon.demo.config.AppProperties;
+import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.domain.EmailTokenPurpose;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 메일 링크에 넣는 토큰을 만들고 한번만 쓰게 한다.
+ * 토큰은 SHA-256 hash 로만 저장하고 찾으므로 DB 가 새도 링크를 만들 수 없고, DB 의 비교 시간으로 토큰을 알아낼 수도 없다.
+ * 토큰을 쓰는 것은 지운 row 를 돌려받는 delete 한번이라 같은 토큰이 동시에 들어와도 하나만 성공한다.
+ * 링크의 이메일도 delete 조건에 넣으므로 이메일이 틀린 링크는 토큰을 지우지 못한다.
+ */
+@Slf4j
+@Service
+public class EmailTokenService {
+
+    static final int CHUNK_SIZE = 500;
+    private static final int TOKEN_BYTES = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+    private final AppProperties.EmailToken properties;
+    private final SecureRandom random = new SecureRandom();
+    private final String consumeSql;
+
+    public EmailTokenService(JdbcTemplate jdbcTemplate, AccountRepository accountRepository, AppProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountRepository = accountRepository;
+        this.properties = properties.getEmailToken();
+        String delete = "delete from email_token where token_hash = ? and purpose = ? and expires_at > ? " +
+                "and account_id = (select id from account where email = ?)";
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        // Postgres 는 delete ... returning, H2 는 old table 로 지운 row 를 돌려받는다.
+        this.consumeSql = "H2".equals(database)
+                ? "select account_id from old table (" + delete + ")"
+                : delete + " returning account_id";
+    }
+
+    /**
+     * 새 토큰을 저장하고 링크에 넣을 토큰을 돌려준다. 부른 쪽의 트랜잭션에 같이 저장된다.
+     */
+    public String issue(Account account, EmailTokenPurpose purpose) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        jdbcTemplate.update("insert into email_token (token_hash, account_id, purpose, expires_at) values (?, ?, ?, ?)",
+                hash(token), account.getId(), purpose.name(), Timestamp.valueOf(LocalDateTime.now().plus(validity(purpose))));
+        return token;
+    }
+
+    /**
+     * 토큰을 지우면서 그 계정을 찾는다. 토큰이 없거나, 만료됐거나, 링크의 이메일이 계정과 다르면 지우지 않고 empty.
+     */
+    public Optional<Account> consume(String token, String email, EmailTokenPurpose purpose) {
+        if (token == null || email == null) {
+            return Optional.empty();
+        }
+        List<Long> accountIds = jdbcTemplate.queryForList(consumeSql, Long.class,
+                hash(token), purpose.name(), Timestamp.valueOf(LocalDateTime.now()), email);
+        return accountIds.stream().findFirst()
+                .flatMap(accountRepository::findById);
+    }
+
+    /**
+     * 만료된 토큰을 CHUNK_SIZE 개씩 지워 한 트랜잭션이 길어지지 않게 한다.
+     */
+    @Scheduled(fixedDelayString = "${app.email-token.sweep-delay:PT1H}", initialDelay = 60_000)
+    public int sweep() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int deleted = 0;
+        int count;
+        do {
+            count = jdbcTemplate.update("delete from email_token where token_hash in " +
+                    "(select token_hash from email_token where expires_at <= ? limit " + CHUNK_SIZE + ")", now);
+            deleted += count;
+        } while (count > 0);
+        if (deleted > 0) {
+            log.info("만료된 메일 토큰 {} 개를 지웠습니다.", deleted);
+        }
+        return deleted;
+    }
+
+    private Duration validity(EmailTokenPurpose purpose) {
+        return purpose == EmailTokenPurpose.LOGIN ? properties.getLoginValidity() : properties.getCheckEmailValidity();
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
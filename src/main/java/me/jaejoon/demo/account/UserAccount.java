@@ -6,16 +6,35 @@ import org.springframework.security.core.userdetails.User;
 
 import java.util.List;
 
+/**
+ * 세션에 들어가는 로그인 정보. 계정 id, 닉네임과 로그인 정보 캐시를 지울 때 쓰는 이메일만 들고 있고
+ * 계정이 필요한 핸들러는 @CurrentUser 로 그때 DB 에서 읽는다.
+ */
 public class UserAccount extends User {
 
-    private final Account account;
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String email;
 
     public UserAccount(Account account) {
         super(account.getNickname() ,account.getPassword(), List.of(new SimpleGrantedAuthority("ROLE_USER")));
-        this.account = account;
+        this.id = account.getId();
+        this.email = account.getEmail();
+    }
+
+    public UserAccount(AccountCredentials credentials) {
+        super(credentials.getNickname(), credentials.getPassword(), List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        this.id = credentials.getId();
+        this.email = credentials.getEmail();
+    }
+
+    public Long getId() {
+        return id;
     }
 
-    public Account getAccount() {
-        return account;
+    public String getEmail() {
+        return email;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package me.jaejoon.demo.avatar;
+
+import lombok.RequiredArgsConstructor;
+import me.jaejoon.demo.domain.Avatar;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/avatars")
+public class AvatarController {
+
+    // hash 가 바뀌면 URL 이 바뀌므로 한번 받은 이미지는 다시 검증할 필요가 없다.
+    private static final String IMMUTABLE =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+    private final AvatarService avatarService;
+
+    @GetMapping("/{hash}")
+    public ResponseEntity<byte[]> image(@PathVariable String hash, WebRequest request) {
+        return respond(hash, request, false);
+    }
+
+    @GetMapping("/{hash}/thumbnail")
+    public ResponseEntity<byte[]> thumbnail(@PathVariable String hash, WebRequest request) {
+        return respond(hash, request, true);
+    }
+
+    private ResponseEntity<byte[]> respond(String hash, WebRequest request, boolean thumbnail) {
+        if (request.checkNotModified(hash)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.CACHE_CONTROL, IMMUTABLE).build();
+        }
+        Avatar avatar = avatarService.getAvatar(hash).orElse(null);
+        if (avatar == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean hasThumbnail = thumbnail && avatar.getThumbnail() != null;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+                .header("X-Content-Type-Options", "nosniff")
+                .eTag(hash)
+                .contentType(hasThumbnail ? MediaType.IMAGE_PNG : contentType(avatar))
+                .body(hasThumbnail ? avatar.getThumbnail() : avatar.getImage());
+    }
+
+    // 검사하기 전에 저장된 이미지일 수도 있으므로 받는 포맷이 아니면 이미지로 내려주지 않는다.
+    private MediaType contentType(Avatar avatar) {
+        return AvatarService.CONTENT_TYPES.containsValue(avatar.getContentType())
+                ? MediaType.parseMediaType(avatar.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -0,0 +1,9 @@
+package me.jaejoon.demo.avatar;
+
+import me.jaejoon.demo.domain.Avatar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface AvatarRepository extends JpaRepository<Avatar, String> {
+}
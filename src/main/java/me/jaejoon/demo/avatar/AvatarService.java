@@ -0,0 +1,154 @@
+package me.jaejoon.demo.avatar;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.jaejoon.demo.domain.Avatar;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class AvatarService {
+
+    static final int THUMBNAIL_SIZE = 64;
+    static final int MAX_IMAGE_BYTES = 1024 * 1024;
+    static final int MAX_DIMENSION = 4096;
+
+    // 브라우저가 스크립트로 실행하지 않는 포맷만 받는다. (svg 는 안된다) key 는 ImageIO 포맷 이름.
+    static final Map<String, String> CONTENT_TYPES = Map.of(
+            "png", MediaType.IMAGE_PNG_VALUE,
+            "jpeg", MediaType.IMAGE_JPEG_VALUE,
+            "gif", MediaType.IMAGE_GIF_VALUE);
+
+    private static final String DATA_URL_PREFIX = "data:";
+    private static final String BASE64_MARKER = ";base64,";
+
+    private final AvatarRepository avatarRepository;
+
+    /**
+     * 프로필 설정 화면에서 넘어온 data URL 을 저장하고 hash 를 돌려준다.
+     * 같은 이미지는 같은 hash 를 가지므로 한번만 저장된다.
+     * content type 은 data URL 에 적힌 것을 믿지 않고 이미지를 직접 읽어서 정한다.
+     */
+    public String store(String dataUrl) {
+        int marker = dataUrl.indexOf(BASE64_MARKER);
+        if (!dataUrl.startsWith(DATA_URL_PREFIX) || marker < 0) {
+            throw new InvalidAvatarException("이미지 data URL 이 아닙니다.");
+        }
+        String encoded = dataUrl.substring(marker + BASE64_MARKER.length());
+        // base64 는 4 글자에 3 byte 이므로 decode 하기 전에 크기를 거른다.
+        if (encoded.length() / 4 * 3 > MAX_IMAGE_BYTES + 3) {
+            throw new InvalidAvatarException("이미지는 1MB 까지 올릴 수 있습니다.");
+        }
+        byte[] image;
+        try {
+            image = Base64.getDecoder().decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAvatarException("이미지를 읽을 수 없습니다.");
+        }
+        if (image.length > MAX_IMAGE_BYTES) {
+            throw new InvalidAvatarException("이미지는 1MB 까지 올릴 수 있습니다.");
+        }
+        DecodedImage decoded = decode(image);
+        String hash = hash(image);
+
+        if (!avatarRepository.existsById(hash)) {
+            avatarRepository.save(Avatar.builder()
+                    .hash(hash)
+                    .contentType(decoded.contentType)
+                    .image(image)
+                    .thumbnail(createThumbnail(decoded.image))
+                    .build());
+        }
+        return hash;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Avatar> getAvatar(String hash) {
+        return avatarRepository.findById(hash);
+    }
+
+    private String hash(byte[] image) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(image);
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                builder.append(String.format("%02x", digest[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // png, jpeg, gif 로 읽히는 이미지만 받는다. 크기가 너무 큰 이미지는 픽셀을 읽기 전에 거른다.
+    private DecodedImage decode(byte[] image) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new InvalidAvatarException("png, jpeg, gif 이미지만 올릴 수 있습니다.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String contentType = CONTENT_TYPES.get(reader.getFormatName().toLowerCase(Locale.ROOT));
+                if (contentType == null) {
+                    throw new InvalidAvatarException("png, jpeg, gif 이미지만 올릴 수 있습니다.");
+                }
+                reader.setInput(in, true, true);
+                if (reader.getWidth(0) > MAX_DIMENSION || reader.getHeight(0) > MAX_DIMENSION) {
+                    throw new InvalidAvatarException("이미지가 너무 큽니다.");
+                }
+                return new DecodedImage(contentType, reader.read(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new InvalidAvatarException("이미지를 읽을 수 없습니다.");
+        }
+    }
+
+    private byte[] createThumbnail(BufferedImage source) {
+        BufferedImage thumbnail = new BufferedImage(THUMBNAIL_SIZE, THUMBNAIL_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, THUMBNAIL_SIZE, THUMBNAIL_SIZE, null);
+        graphics.dispose();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            log.warn("failed to create thumbnail", e);
+            return null;
+        }
+    }
+
+    private static class DecodedImage {
+        private final String contentType;
+        private final BufferedImage image;
+
+        private DecodedImage(String contentType, BufferedImage image) {
+            this.contentType = contentType;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package me.jaejoon.demo.avatar;
+
+/**
+ * 저장할 수 없는 프로필 이미지. 프로필 수정 화면에서는 입력 오류로 보여준다.
+ */
+public class InvalidAvatarException extends RuntimeException {
+
+    public InvalidAvatarException(String message) {
+        super(message);
+    }
+}
@@ -1,17 +1,25 @@
 package me.jaejoon.demo.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.NameTokenizers;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
+@EnableScheduling
 public class AppConfig {
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public PasswordEncoder passwordEncoder(AppProperties properties, MeterRegistry meterRegistry){
+        AppProperties.PasswordHash passwordHash = properties.getPasswordHash();
+        PasswordEncoder bcrypt = CalibratedBCryptPasswordEncoder.calibrate(passwordHash.getTargetLatency(), passwordHash.getMinStrength());
+        return new BoundedPasswordEncoder(new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt)),
+                passwordHash, meterRegistry);
     }
 
     @Bean
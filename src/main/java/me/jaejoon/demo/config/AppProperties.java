@@ -1,12 +1,87 @@
 package me.jaejoon.demo.config;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @Data
 @ConfigurationProperties("app")
 public class AppProperties {
     private String host;
+
+    private PasswordHash passwordHash = new PasswordHash();
+
+    private RememberMe rememberMe = new RememberMe();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private EmailToken emailToken = new EmailToken();
+
+    private UniqueFilter uniqueFilter = new UniqueFilter();
+
+    @Data
+    public static class PasswordHash {
+        // 동시에 해시를 계산하는 스레드 수. 이보다 많은 요청은 queue 에서 기다린다.
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        // queue 가 차면 기다리지 않고 바로 거절한다.
+        private int queueCapacity = 64;
+
+        private Duration timeout = Duration.ofSeconds(5);
+
+        // 시작할 때 비밀번호 확인 한번이 이 시간 안에 끝나는 BCrypt strength 를 고른다.
+        private Duration targetLatency = Duration.ofMillis(100);
+
+        private int minStrength = 10;
+    }
+
+    @Data
+    public static class RememberMe {
+        // 마지막으로 쓴 뒤 이 기간이 지난 토큰은 만료되고 주기적으로 지운다.
+        private Duration tokenValidity = Duration.ofDays(14);
+
+        // 자동 로그인 때 토큰을 서버 메모리에서 읽는다. 한 사용자의 요청이 여러 서버로 나뉘면 끈다.
+        private boolean cacheTokens = true;
+    }
+
+    @Data
+    public static class EmailToken {
+        // 가입 인증 링크를 쓸 수 있는 기간
+        private Duration checkEmailValidity = Duration.ofDays(1);
+
+        // 이메일 로그인 링크를 쓸 수 있는 기간
+        private Duration loginValidity = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class UniqueFilter {
+        // 사용 중이 아닌 값을 사용 중일 수도 있다고 답해 DB 를 보게 되는 확률
+        private double fpp = 0.01;
+    }
+
+    @Data
+    public static class RateLimit {
+        // 받는 사람(계정, 이메일)마다 window 동안 메일을 보낼 수 있는 횟수
+        private Bucket recipient = new Bucket(1, Duration.ofHours(1));
+
+        // 한 IP 에서 window 동안 메일을 보내게 할 수 있는 횟수
+        private Bucket ip = new Bucket(20, Duration.ofHours(1));
+
+        // 제한기마다 기억하는 key 수. 넘으면 오래 쓰지 않은 key 부터 잊는다.
+        private int maxKeys = 100_000;
+
+        @Data
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Bucket {
+            private int capacity;
+
+            private Duration window;
+        }
+    }
 }
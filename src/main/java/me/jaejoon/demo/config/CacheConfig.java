@@ -0,0 +1,57 @@
+package me.jaejoon.demo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Zone, Tag 같이 거의 바뀌지 않는 참조 데이터 캐시.
+ * Zone 은 시작할 때 한번 저장하고 바뀌지 않는다. 전체 목록은 검색 색인이 들고 있으므로 캐시하지 않는다.
+ * Tag 는 추가만 되므로 커밋된 뒤에만 캐시에 넣고 지워서 롤백된 태그가 캐시에 남지 않게 한다.
+ * 로그인 정보는 닉네임/비밀번호를 바꾸면 지우지만, 다른 서버에서 바꾼 것도 곧 반영되도록 짧게만 들고 있는다.
+ * 적중/실패 수는 actuator 의 cache.gets 지표로 나간다.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ZONE = "zone";
+    public static final String TAGS = "tags";
+    public static final String TAG = "tag";
+    public static final String ACCOUNT_CREDENTIALS = "accountCredentials";
+
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Duration ACCOUNT_CREDENTIALS_TTL = Duration.ofSeconds(30);
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                caffeineCache(ZONE),
+                new TransactionAwareCacheDecorator(caffeineCache(TAGS)),
+                new TransactionAwareCacheDecorator(caffeineCache(TAG)),
+                new TransactionAwareCacheDecorator(caffeineCache(ACCOUNT_CREDENTIALS,
+                        Caffeine.newBuilder().expireAfterWrite(ACCOUNT_CREDENTIALS_TTL)))));
+        return cacheManager;
+    }
+
+    private Cache caffeineCache(String name) {
+        return caffeineCache(name, Caffeine.newBuilder());
+    }
+
+    private Cache caffeineCache(String name, Caffeine<Object, Object> builder) {
+        return new CaffeineCache(name, builder
+                .maximumSize(MAXIMUM_SIZE)
+                .recordStats()
+                .build(), false);
+    }
+}
@@ -0,0 +1,115 @@
+package me.jaejoon.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * persistent_logins 앞에 캐시를 둔 remember-me 토큰 저장소.
+ * 자동 로그인마다 하던 조회는 캐시에서 하고, 토큰 갱신(token, last_used)은 바로 DB 에 쓴다.
+ * 갱신을 잃으면 다음 자동 로그인이 이전 토큰으로 비교되어 CookieTheftException 과 함께 그 사용자의 모든 토큰이 지워지므로
+ * 갱신은 모아 두지 않는다. 만료된 series 는 한 시간마다 나눠서 지운다.
+ * 캐시는 서버마다 따로 있으므로 한 사용자의 요청이 여러 서버로 나뉘면(sticky session 이 없으면)
+ * 다른 서버가 바꾼 토큰을 모른다. 그런 배포에서는 app.remember-me.cache-tokens=false 로 매번 DB 에서 읽는다.
+ */
+@Slf4j
+@Component
+public class CachedTokenRepository implements PersistentTokenRepository {
+
+    static final int CHUNK_SIZE = 500;
+    private static final int MAXIMUM_SIZE = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration tokenValidity;
+    private final Cache<String, PersistentRememberMeToken> cache;
+    private final boolean cacheTokens;
+
+    public CachedTokenRepository(JdbcTemplate jdbcTemplate, AppProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenValidity = properties.getRememberMe().getTokenValidity();
+        this.cacheTokens = properties.getRememberMe().isCacheTokens();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterAccess(tokenValidity)
+                .build();
+    }
+
+    public Duration getTokenValidity() {
+        return tokenValidity;
+    }
+
+    @Override
+    public void createNewToken(PersistentRememberMeToken token) {
+        jdbcTemplate.update("insert into persistent_logins (username, series, token, last_used) values (?, ?, ?, ?)",
+                token.getUsername(), token.getSeries(), token.getTokenValue(), new Timestamp(token.getDate().getTime()));
+        if (cacheTokens) {
+            cache.put(token.getSeries(), token);
+        }
+    }
+
+    @Override
+    public void updateToken(String series, String tokenValue, Date lastUsed) {
+        int updated = jdbcTemplate.update("update persistent_logins set token = ?, last_used = ? where series = ?",
+                tokenValue, new Timestamp(lastUsed.getTime()), series);
+        PersistentRememberMeToken current = cache.getIfPresent(series);
+        if (updated == 1 && current != null) {
+            cache.put(series, new PersistentRememberMeToken(current.getUsername(), series, tokenValue, lastUsed));
+        } else {
+            cache.invalidate(series);
+        }
+    }
+
+    @Override
+    public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+        if (!cacheTokens) {
+            return select(seriesId);
+        }
+        return cache.get(seriesId, this::select);
+    }
+
+    @Override
+    public void removeUserTokens(String username) {
+        jdbcTemplate.update("delete from persistent_logins where username = ?", username);
+        cache.asMap().values().removeIf(token -> token.getUsername().equals(username));
+    }
+
+    /**
+     * 유효 기간이 지난 series 를 CHUNK_SIZE 개씩 지워 한 트랜잭션이 길어지지 않게 한다.
+     */
+    @Scheduled(fixedDelayString = "${app.remember-me.sweep-delay:PT1H}", initialDelay = 60_000)
+    public int sweep() {
+        Timestamp expiredBefore = new Timestamp(System.currentTimeMillis() - tokenValidity.toMillis());
+        int deleted = 0;
+        int count;
+        do {
+            count = jdbcTemplate.update("delete from persistent_logins where series in " +
+                    "(select series from persistent_logins where last_used < ? limit " + CHUNK_SIZE + ")", expiredBefore);
+            deleted += count;
+        } while (count > 0);
+        cache.asMap().values().removeIf(token -> token.getDate().before(expiredBefore));
+        if (deleted > 0) {
+            log.info("만료된 remember-me 토큰 {} 개를 지웠습니다.", deleted);
+        }
+        return deleted;
+    }
+
+    private PersistentRememberMeToken select(String series) {
+        try {
+            return jdbcTemplate.queryForObject("select username, series, token, last_used from persistent_logins where series = ?",
+                    (rs, rowNum) -> new PersistentRememberMeToken(rs.getString(1), rs.getString(2), rs.getString(3), rs.getTimestamp(4)),
+                    series);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package me.jaejoon.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 시작할 때 이 서버에서 확인 한번이 목표 시간 안에 끝나는 가장 큰 BCrypt strength 를 골라 쓴다.
+ * 저장된 해시의 strength 가 지금 값과 다르면 (약하든 강하든) 다음 로그인 때 다시 해시하도록 알린다.
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    static final int MAX_STRENGTH = 31;
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int WARM_UP = 10;
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public static CalibratedBCryptPasswordEncoder calibrate(Duration targetLatency, int minStrength) {
+        for (int i = 0; i < WARM_UP; i++) {
+            new BCryptPasswordEncoder(4).encode("warm-up");
+        }
+        // strength 가 1 오를 때마다 시간이 두배가 되므로 목표를 넘을 때까지 올려 본다.
+        int strength = 4;
+        long elapsed = measure(strength);
+        while (strength < MAX_STRENGTH && elapsed * 2 <= targetLatency.toNanos()) {
+            strength++;
+            elapsed = measure(strength);
+        }
+        int chosen = Math.max(minStrength, strength);
+        log.info("BCrypt strength {} (strength {} 에서 {}ms, 목표 {}ms)",
+                chosen, strength, elapsed / 1_000_000, targetLatency.toMillis());
+        return new CalibratedBCryptPasswordEncoder(chosen);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) != strength;
+    }
+
+    private static long measure(int strength) {
+        long start = System.nanoTime();
+        new BCryptPasswordEncoder(strength).encode("calibration");
+        return System.nanoTime() - start;
+    }
+}
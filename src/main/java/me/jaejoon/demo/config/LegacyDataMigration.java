@@ -0,0 +1,200 @@
+package me.jaejoon.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import me.jaejoon.demo.avatar.AvatarService;
+import me.jaejoon.demo.avatar.InvalidAvatarException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Clob;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 예전 스키마로 쌓인 데이터를 지금 엔티티에 맞게 옮긴다. (dev 처럼 ddl-auto=update 로 스키마를 이어 쓰는 DB 용)
+ * EntityManagerFactory 를 받아 Hibernate 가 새 테이블/컬럼을 만든 뒤에, 요청을 받기 전에 돈다.
+ * 단계마다 예전 테이블/컬럼이 남아 있을 때만 하므로 새 DB 나 이미 옮긴 DB 에서는 아무것도 하지 않는다.
+ */
+@Slf4j
+@Component
+public class LegacyDataMigration {
+
+    static final int CHUNK_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AvatarService avatarService;
+
+    public LegacyDataMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               AvatarService avatarService, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.avatarService = avatarService;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        migrateProfileImages();
+        migrateStudyMembers();
+        migrateSequences();
+    }
+
+    /**
+     * account.profile_image 에 data URL 로 들어 있던 이미지를 Avatar 로 옮기고 hash 만 남긴다.
+     * 옮긴 row 는 profile_image 를 비운다. 받을 수 없는 이미지(svg 등)는 옮기지 않고 남겨 둔다.
+     */
+    void migrateProfileImages() {
+        if (!columnExists("account", "profile_image")) {
+            return;
+        }
+        long lastId = 0;
+        int migrated = 0;
+        int rejected = 0;
+        while (true) {
+            long after = lastId;
+            // LOB 은 트랜잭션 안에서만 읽을 수 있다. (postgres)
+            List<Object[]> rows = transactionTemplate.execute(status -> jdbcTemplate.query(
+                    "select id, profile_image from account where profile_image is not null and avatar is null " +
+                            "and id > ? order by id limit " + CHUNK_SIZE,
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), readLob(rs, 2)}, after));
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                lastId = (Long) row[0];
+                try {
+                    String hash = avatarService.store((String) row[1]);
+                    jdbcTemplate.update("update account set avatar = ?, profile_image = null where id = ?", hash, lastId);
+                    migrated++;
+                } catch (InvalidAvatarException e) {
+                    log.warn("account {} 의 프로필 이미지를 옮기지 못했습니다: {}", lastId, e.getMessage());
+                    rejected++;
+                }
+            }
+        }
+        if (migrated + rejected > 0) {
+            log.info("프로필 이미지 {} 개를 옮겼습니다. (옮기지 못한 것 {} 개)", migrated, rejected);
+        }
+    }
+
+    /**
+     * 예전 @ManyToMany 조인 테이블 study_members 를 study_member 로 옮기고 member_count 를 다시 센다.
+     * 가입 시각은 남아 있지 않으므로 지금 시각으로 두고, 가입순 key 인 id 는 account id 순으로 매긴다.
+     * 한 트랜잭션에서 옮기고 study_members 를 지우므로 한 번만 돈다.
+     */
+    void migrateStudyMembers() {
+        if (!tableExists("study_members")) {
+            return;
+        }
+        Integer migrated = transactionTemplate.execute(status -> {
+            int inserted = jdbcTemplate.update(
+                    "insert into study_member (study_id, account_id, joined_at) " +
+                            "select sm.study_id, sm.members_id, current_timestamp from study_members sm " +
+                            "where not exists (select 1 from study_member m " +
+                            "where m.study_id = sm.study_id and m.account_id = sm.members_id) " +
+                            "order by sm.study_id, sm.members_id");
+            jdbcTemplate.update("update study set member_count = " +
+                    "(select count(*) from study_member m where m.study_id = study.id)");
+            jdbcTemplate.execute("drop table study_members");
+            return inserted;
+        });
+        log.info("스터디 맴버 {} 건을 study_member 로 옮겼습니다.", migrated);
+    }
+
+    /**
+     * 엔티티마다 새로 만든 시퀀스는 1 부터 시작하므로, hibernate_sequence 로 id 를 받아 온 row 와 겹치지 않게
+     * 각 시퀀스를 테이블의 최대 id 뒤로 옮긴다. pooled optimizer 는 받아 온 값에서 allocationSize - 1 만큼
+     * 앞의 id 부터 쓰므로 그만큼 더 띄운다. 이미 더 앞서 있는 시퀀스는 당기지 않는다.
+     * 옮긴 뒤에는 쓰는 엔티티가 없는 hibernate_sequence 를 지우므로 한 번만 돈다.
+     */
+    void migrateSequences() {
+        if (!sequenceExists("hibernate_sequence")) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // allocationSize 는 각 엔티티의 @SequenceGenerator 와 같아야 한다.
+            restartAfterMaxId("account", "account_seq", 50);
+            restartAfterMaxId("study", "study_seq", 50);
+            restartAfterMaxId("tag", "tag_seq", 50);
+            restartAfterMaxId("event", "event_seq", 50);
+            restartAfterMaxId("enrollment", "enrollment_seq", 50);
+            restartAfterMaxId("zone", "zone_seq", 1);
+            jdbcTemplate.execute("drop sequence hibernate_sequence");
+        });
+    }
+
+    private void restartAfterMaxId(String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        Long next = jdbcTemplate.queryForObject("select nextval('" + sequence + "')", Long.class);
+        long restart = Math.max(next, (maxId == null ? 0 : maxId) + allocationSize + 1);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restart);
+        log.info("{} 를 {} 부터 시작하도록 옮겼습니다.", sequence, restart);
+    }
+
+    // hibernate 는 postgres 에서 @Lob String 을 large object 로 저장했으므로 clob 으로 먼저 읽는다.
+    private String readLob(ResultSet rs, int column) throws SQLException {
+        try {
+            Clob clob = rs.getClob(column);
+            return clob == null ? null : clob.getSubString(1, (int) clob.length());
+        } catch (SQLException e) {
+            return rs.getString(column);
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : casings(table, column)) {
+                try (ResultSet rs = metaData.getColumns(null, null, names[0], names[1])) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private boolean sequenceExists(String sequence) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.sequences where lower(sequence_name) = ?",
+                Integer.class, sequence.toLowerCase(Locale.ROOT));
+        return count != null && count > 0;
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : casings(table)) {
+                try (ResultSet rs = metaData.getTables(null, null, names[0], new String[]{"TABLE"})) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    // postgres 는 소문자, H2 는 대문자로 이름을 저장한다.
+    private static List<String[]> casings(String... names) {
+        List<String[]> casings = new ArrayList<>();
+        String[] lower = new String[names.length];
+        String[] upper = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            lower[i] = names[i].toLowerCase(Locale.ROOT);
+            upper[i] = names[i].toUpperCase(Locale.ROOT);
+        }
+        casings.add(lower);
+        casings.add(upper);
+        return casings;
+    }
+}
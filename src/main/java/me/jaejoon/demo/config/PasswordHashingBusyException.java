@@ -0,0 +1,21 @@
+package me.jaejoon.demo.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 비밀번호 해시 pool 이 가득 차서 요청을 거절했다.
+ * 로그인에서는 인증 실패로, 가입/비밀번호 변경에서는 503 으로 응답한다.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,6 +2,8 @@ package me.jaejoon.demo.config;
 
 import lombok.RequiredArgsConstructor;
 import me.jaejoon.demo.account.AccountService;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,24 +11,23 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.web.authentication.rememberme.JdbcTokenRepositoryImpl;
-import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
-
-import javax.sql.DataSource;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
     private final AccountService service;
-    private final DataSource dataSource;
+    private final CachedTokenRepository tokenRepository;
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.authorizeRequests()
                 .mvcMatchers("/","sign-up","/login","/check-email-token",
                         "/email-login","/check-email-login","/login-link",
                         "/login-by-email","check-login-email").permitAll()
-                .mvcMatchers(HttpMethod.GET,"/profile/*").permitAll()
+                .mvcMatchers(HttpMethod.GET,"/profile/*","/avatars/**").permitAll()
+                // health 외의 actuator(metrics 등)는 운영자만 본다. 가입한 계정은 ROLE_USER 만 받는다.
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                 .anyRequest().authenticated();
 
         http.formLogin().loginPage("/login").permitAll();
@@ -34,13 +35,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
         http.rememberMe()
                 .userDetailsService(service)
-                .tokenRepository(tokenRepository());
-    }
-
-    private PersistentTokenRepository tokenRepository() {
-        JdbcTokenRepositoryImpl jdbcTokenRepository = new JdbcTokenRepositoryImpl();
-        jdbcTokenRepository.setDataSource(dataSource);
-        return jdbcTokenRepository;
+                .tokenRepository(tokenRepository)
+                .tokenValiditySeconds((int) tokenRepository.getTokenValidity().getSeconds());
     }
 
     @Override
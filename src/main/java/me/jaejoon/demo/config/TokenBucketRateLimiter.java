@@ -0,0 +1,118 @@
+package me.jaejoon.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * key 마다 token bucket 을 두는 요청 제한기. capacity 번까지 바로 쓸 수 있고 window 동안 capacity 개가 다시 찬다.
+ * key 의 hash 로 나눈 stripe 마다 lock 과 LRU map 을 따로 두어 다른 key 끼리는 거의 부딪히지 않는다.
+ * stripe 마다 maxKeys / STRIPES 개를 넘으면 가장 오래 쓰지 않은 key 부터 버린다. (버린 key 는 꽉 찬 bucket 으로 다시 시작한다)
+ * bucket 은 token 수 대신 다시 꽉 차는 시각만 들고 있어서 나눗셈 오차 없이 long 하나로 계산한다.
+ * 거절한 수는 rate.limit.rejected 지표로 나간다.
+ */
+public class TokenBucketRateLimiter {
+
+    static final int STRIPES = 64;
+
+    private final long window;
+    // token 하나가 다시 차는 데 걸리는 시간
+    private final long interval;
+    private final LongSupplier nanoClock;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter rejected;
+    private final Counter evicted;
+
+    public TokenBucketRateLimiter(String name, AppProperties.RateLimit.Bucket bucket, int maxKeys, MeterRegistry meterRegistry) {
+        this(name, bucket.getCapacity(), bucket.getWindow(), maxKeys, meterRegistry, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(String name, int capacity, Duration window, int maxKeys,
+                           MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.window = window.toNanos();
+        this.interval = this.window / capacity;
+        this.nanoClock = nanoClock;
+        this.rejected = meterRegistry.counter("rate.limit.rejected", "limiter", name);
+        this.evicted = meterRegistry.counter("rate.limit.evicted", "limiter", name);
+        int keysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+        Gauge.builder("rate.limit.keys", this, TokenBucketRateLimiter::size)
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire(String key) {
+        Stripe stripe = stripe(key);
+        long now = nanoClock.getAsLong();
+        synchronized (stripe) {
+            Bucket bucket = stripe.computeIfAbsent(key, k -> new Bucket(now));
+            long fullAt = Math.max(bucket.fullAt, now);
+            // 꽉 차기까지 남은 시간이 window - interval 이하면 token 이 하나 이상 남아 있다.
+            if (fullAt - now <= window - interval) {
+                bucket.fullAt = fullAt + interval;
+                return true;
+            }
+        }
+        rejected.increment();
+        return false;
+    }
+
+    // 같이 확인하는 다른 제한에서 거절되면 방금 쓴 token 하나를 돌려준다.
+    public void refund(String key) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket != null) {
+                bucket.fullAt -= interval;
+            }
+        }
+    }
+
+    private Stripe stripe(String key) {
+        return stripes[(key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1)];
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Bucket {
+        private long fullAt;
+
+        private Bucket(long fullAt) {
+            this.fullAt = fullAt;
+        }
+    }
+
+    // 접근 순서로 정렬해 가장 오래 쓰지 않은 key 를 버린다.
+    private class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxKeys;
+
+        private Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            if (size() > maxKeys) {
+                evicted.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
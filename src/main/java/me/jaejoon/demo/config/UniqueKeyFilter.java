@@ -0,0 +1,132 @@
+package me.jaejoon.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Predicate;
+
+/**
+ * 중복 확인을 하는 key 공간 하나(이메일, 닉네임, 스터디 경로)의 Bloom filter.
+ * filter 에 없으면 DB 를 보지 않고 사용 중이 아니라고 답하고, 있을 것 같으면 DB 로 확인한다.
+ * 지운 key 는 filter 에서 빠지지 않으므로 rebuild 로 DB 의 key 를 다시 읽어 새로 만들고, 만드는 동안 추가된 key 는 새 filter 에도 넣는다.
+ * 처음 만들기 전에는 모두 DB 로 확인한다.
+ * 다른 서버나 DB 에 직접 넣은 key 는 다시 만들 때까지 filter 에 없으므로 확인을 통과할 수 있다.
+ * 그래서 저장하다 unique 제약에 걸리면 existsInDatabase 로 다시 확인해 입력 오류로 돌려준다.
+ * 확인 결과는 unique.filter.checks(result=free, probable) 로, probable 인데 DB 에 없던 것은 unique.filter.false.positive 로 나간다.
+ */
+public class UniqueKeyFilter {
+
+    // 다음에 다시 만들 때까지 늘어날 key 를 위해 여유를 둔다.
+    private static final int MINIMUM_CAPACITY = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String column;
+    private final double fpp;
+    private final Counter free;
+    private final Counter probable;
+    private final Counter falsePositive;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    public UniqueKeyFilter(String name, JdbcTemplate jdbcTemplate, String table, String column,
+                           double fpp, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.column = column;
+        this.fpp = fpp;
+        this.free = meterRegistry.counter("unique.filter.checks", "filter", name, "result", "free");
+        this.probable = meterRegistry.counter("unique.filter.checks", "filter", name, "result", "probable");
+        this.falsePositive = meterRegistry.counter("unique.filter.false.positive", "filter", name);
+        Gauge.builder("unique.filter.false.positive.rate", this, UniqueKeyFilter::falsePositiveRate)
+                .tag("filter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * filter 에 없으면 false, 있을 것 같으면 database 로 확인한 결과.
+     */
+    public boolean exists(String key, Predicate<String> database) {
+        BloomFilter current = filter;
+        if (key == null || current == null) {
+            return database.test(key);
+        }
+        if (!current.mightContain(key)) {
+            free.increment();
+            return false;
+        }
+        probable.increment();
+        boolean exists = database.test(key);
+        if (!exists) {
+            falsePositive.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * filter 를 거치지 않고 DB 로 확인한다. 있으면 filter 에도 넣어 다음 확인부터는 DB 로 확인하게 한다.
+     */
+    public boolean existsInDatabase(String key) {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from " + table + " where " + column + " = ?",
+                Integer.class, key);
+        boolean exists = count != null && count > 0;
+        if (exists) {
+            put(key);
+        }
+        return exists;
+    }
+
+    /**
+     * 새로 쓰는 key. 같은 트랜잭션의 확인에도 보이도록 바로 넣고, 다시 만드는 중에 커밋되면 새 filter 에 빠질 수 있어 커밋된 뒤에 한번 더 넣는다.
+     * 롤백된 key 는 다음에 다시 만들 때까지 DB 로 확인하게 될 뿐이다.
+     */
+    public void add(String key) {
+        put(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    put(key);
+                }
+            });
+        }
+    }
+
+    public synchronized void rebuild() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        BloomFilter next = new BloomFilter(Math.max(MINIMUM_CAPACITY, count * 2), fpp);
+        // 읽기 전에 building 을 두어야 읽는 동안 커밋된 key 도 빠지지 않는다.
+        building = next;
+        jdbcTemplate.query("select " + column + " from " + table, rs -> {
+            String key = rs.getString(1);
+            if (key != null) {
+                next.put(key);
+            }
+        });
+        filter = next;
+        building = null;
+    }
+
+    // 지금까지 DB 에 없던 key 를 확인한 것 중에 filter 가 있다고 잘못 답한 비율
+    public double falsePositiveRate() {
+        double negatives = free.count() + falsePositive.count();
+        return negatives == 0 ? 0 : falsePositive.count() / negatives;
+    }
+
+    // building 을 먼저 읽어야 rebuild 가 filter 를 바꾸는 사이에 넣어도 새 filter 에 들어간다.
+    private void put(String key) {
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (next != null) {
+            next.put(key);
+        }
+        if (current != null) {
+            current.put(key);
+        }
+    }
+}
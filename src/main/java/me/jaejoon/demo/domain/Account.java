@@ -6,14 +6,14 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
 
 @Entity
 @Getter @Setter @EqualsAndHashCode(of="id")
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Account {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true)
@@ -26,8 +26,6 @@ public class Account {
 
     private boolean emailVerified;
 
-    private String emailCheckToken;
-
     private LocalDateTime joinedAt;
 
     private String bio;
@@ -38,8 +36,9 @@ public class Account {
 
     private String location;
 
-    @Lob @Basic(fetch = FetchType.EAGER)
-    private String profileImage;
+    // 프로필 이미지는 Avatar 에 따로 저장하고 hash 만 가지고 있는다.
+    @Column(length = 32)
+    private String avatar;
 
     private boolean studyCreatedByEmail;
 
@@ -59,31 +58,11 @@ public class Account {
 
     private boolean studyUpdateByWeb = true;
 
-    private LocalDateTime emailCheckTokenGeneratedAt;
-
-    public void generateEmailCheckToken() {
-        this.emailCheckToken = UUID.randomUUID().toString();
-    }
-
     public void completeCheck(){
         this.emailVerified =true;
         this.joinedAt = LocalDateTime.now();
     }
 
-    public boolean emailTokenValid(String token) {
-        return this.emailCheckToken.equals(token);
-    }
-
-    public boolean canSendConfirmEmail(){
-        if(this.emailCheckTokenGeneratedAt == null){
-            this.emailCheckTokenGeneratedAt = LocalDateTime.now();
-            return true;
-        }
-        return this.emailCheckTokenGeneratedAt.isBefore(LocalDateTime.now().minusHours(1));
-
-
-    }
-
     public boolean isManagerOf(Study study) {
        return study.getManagers().contains(this);
     }
@@ -0,0 +1,28 @@
+package me.jaejoon.demo.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * 프로필 이미지를 내용 해시를 key 로 저장한다.
+ * Account 에는 hash 만 남기고 이미지는 /avatars/{hash} 로 따로 내려준다.
+ */
+@Entity
+@Getter @EqualsAndHashCode(of = "hash")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class Avatar {
+
+    @Id
+    @Column(length = 32)
+    private String hash;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Lob @Basic(fetch = FetchType.LAZY)
+    private byte[] image;
+
+    @Lob @Basic(fetch = FetchType.LAZY)
+    private byte[] thumbnail;
+}
@@ -0,0 +1,32 @@
+package me.jaejoon.demo.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 메일로 보낸 인증/로그인 링크의 토큰. 토큰 자체는 저장하지 않고 SHA-256 hash 를 key 로 쓴다.
+ * 한번 쓰면 지우고, expiresAt 이 지난 것은 EmailTokenService 가 주기적으로 지운다.
+ * 저장과 조회는 EmailTokenService 가 JDBC 로 한다.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "expiresAt"))
+@Getter @EqualsAndHashCode(of = "tokenHash")
+@AllArgsConstructor @NoArgsConstructor
+public class EmailToken {
+
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EmailTokenPurpose purpose;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,5 @@
+package me.jaejoon.demo.domain;
+
+public enum EmailTokenPurpose {
+    CHECK_EMAIL, LOGIN
+}
@@ -0,0 +1,52 @@
+package me.jaejoon.demo.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보낼 메일. 메일을 보내게 된 트랜잭션에서 같이 저장하고 EmailDispatcher 가 따로 보낸다.
+ * 보내지 못하면 attempts 를 올리고 nextAttemptAt 까지 기다렸다가 다시 보내고, 여러 번 실패하면 DEAD 로 남긴다.
+ */
+@Entity
+@Table(indexes = {@Index(columnList = "status, nextAttemptAt"), @Index(columnList = "leaseToken")})
+@Getter @EqualsAndHashCode(of = "id")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class OutboxEmail {
+
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_email_seq")
+    @SequenceGenerator(name = "outbox_email_seq", sequenceName = "outbox_email_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob @Basic(fetch = FetchType.EAGER)
+    @Column(nullable = false)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    // 마지막으로 이 메일을 가져간 dispatcher 의 lease. 서버가 여러 대여도 lease 에 성공한 것만 이 값으로 다시 읽어 보낸다.
+    @Column(length = 36)
+    private String leaseToken;
+}
@@ -0,0 +1,27 @@
+package me.jaejoon.demo.domain;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 시작할 때 넣는 참조 데이터 파일별로 마지막으로 반영한 파일의 checksum.
+ * checksum 이 같으면 파일을 다시 읽어 넣지 않는다.
+ */
+@Entity
+@Getter @EqualsAndHashCode(of = "name")
+@AllArgsConstructor @NoArgsConstructor
+public class ReferenceDataVersion {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String checksum;
+
+    @Column(nullable = false)
+    private LocalDateTime loadedAt;
+}
@@ -0,0 +1,31 @@
+package me.jaejoon.demo.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 스터디 가입 한 건을 한 row 로 저장한다.
+ * 가입/탈퇴는 맴버 목록을 읽지 않고 이 row 하나를 insert/delete 한다.
+ * id 는 가입 순서대로 증가하므로 가입순 조회의 key 로 쓴다.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"study_id", "account_id"}),
+        indexes = @Index(columnList = "study_id, id"))
+@Getter @EqualsAndHashCode(of = "id")
+@NoArgsConstructor
+public class StudyMember {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Study study;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Account account;
+
+    @Column(nullable = false)
+    private LocalDateTime joinedAt;
+}
@@ -9,7 +9,9 @@ import javax.persistence.*;
 @Builder @AllArgsConstructor @NoArgsConstructor
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = {"city", "province"}))
 public class Zone {
-    @Id @GeneratedValue
+    // ZoneService 가 JDBC 로 nextval 을 직접 불러 넣으므로 미리 당겨 쓰지 않는다.
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "zone_seq")
+    @SequenceGenerator(name = "zone_seq", sequenceName = "zone_seq", allocationSize = 1)
     private Long id;
 
     @Column(nullable = false)
@@ -7,6 +7,7 @@ import me.jaejoon.demo.domain.Account;
 import me.jaejoon.demo.domain.Event;
 import me.jaejoon.demo.domain.Study;
 import me.jaejoon.demo.event.form.EventForm;
+import me.jaejoon.demo.study.StudyFetchPlan;
 import me.jaejoon.demo.study.StudyService;
 import me.jaejoon.demo.validation.EventValidator;
 import org.modelmapper.ModelMapper;
@@ -35,9 +36,9 @@ public class EventController {
 
     @GetMapping("/new-event")
     public String newEventForm(@CurrentUser Account account, @PathVariable String path, Model model) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.STATUS);
         model.addAttribute(study);
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         model.addAttribute(new EventForm());
         return "event/form";
     }
@@ -45,9 +46,9 @@ public class EventController {
     @PostMapping("/new-event")
     public String newEventSubmit(@CurrentUser Account account, @PathVariable String path,
                                  @Valid EventForm eventForm, Errors errors, Model model) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.STATUS);
         if (errors.hasErrors()) {
-            model.addAttribute(account);
+            model.addAttribute("account", account);
             model.addAttribute(study);
             return "event/form";
         }
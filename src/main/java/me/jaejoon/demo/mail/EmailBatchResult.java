@@ -0,0 +1,38 @@
+package me.jaejoon.demo.mail;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 여러 메일을 한번에 보낸 결과. 실패한 메일은 보낸 목록에서의 순서(index)로 찾는다.
+ */
+public class EmailBatchResult {
+
+    private final int total;
+    private final Map<Integer, Exception> failures;
+
+    public EmailBatchResult(int total, Map<Integer, Exception> failures) {
+        this.total = total;
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSentCount() {
+        return total - failures.size();
+    }
+
+    public int getFailedCount() {
+        return failures.size();
+    }
+
+    public boolean isSent(int index) {
+        return !failures.containsKey(index);
+    }
+
+    public Exception getFailure(int index) {
+        return failures.get(index);
+    }
+}
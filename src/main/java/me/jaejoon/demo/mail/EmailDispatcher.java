@@ -0,0 +1,112 @@
+package me.jaejoon.demo.mail;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.jaejoon.demo.domain.OutboxEmail;
+import me.jaejoon.demo.domain.OutboxStatus;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * outbox 에 쌓인 메일을 BATCH_SIZE 개씩 꺼내 보낸다.
+ * 조건부 update 로 lease 에 성공한 메일만 보내므로 서버가 여러 대여도 한 메일을 두 번 보내지 않는다.
+ * 실패하면 30초부터 두배씩 (최대 한 시간) 기다렸다 다시 보내고, MAX_ATTEMPTS 번 실패하면 DEAD 로 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailDispatcher {
+
+    static final int BATCH_SIZE = 50;
+    static final int MAX_ATTEMPTS = 5;
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    static final Duration LEASE = Duration.ofMinutes(5);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailService emailService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Scheduled(fixedDelayString = "${app.mail.dispatch-delay:PT2S}")
+    public void dispatch() {
+        dispatch(LocalDateTime.now());
+    }
+
+    /**
+     * now 까지 보낼 차례가 된 메일을 모두 보내고 보낸 수를 돌려준다. 이 서버에서 이미 보내는 중이면 바로 돌아온다.
+     */
+    int dispatch(LocalDateTime now) {
+        if (!lock.tryLock()) {
+            return 0;
+        }
+        try {
+            int sent = 0;
+            List<Long> ids;
+            do {
+                ids = outboxEmailRepository.findIdsToSend(OutboxStatus.PENDING, now, PageRequest.of(0, BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String leaseToken = UUID.randomUUID().toString();
+                if (outboxEmailRepository.lease(ids, OutboxStatus.PENDING, now, now.plus(LEASE), leaseToken) > 0) {
+                    sent += send(outboxEmailRepository.findByLeaseTokenOrderById(leaseToken), now);
+                }
+            } while (ids.size() == BATCH_SIZE);
+            return sent;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int send(List<OutboxEmail> batch, LocalDateTime now) {
+        List<EmailMessage> messages = batch.stream()
+                .map(email -> EmailMessage.builder()
+                        .to(email.getRecipient())
+                        .subject(email.getSubject())
+                        .message(email.getMessage())
+                        .build())
+                .collect(Collectors.toList());
+        EmailBatchResult result = emailService.sendEmails(messages);
+
+        List<Long> sentIds = new ArrayList<>(result.getSentCount());
+        for (int i = 0; i < batch.size(); i++) {
+            if (result.isSent(i)) {
+                sentIds.add(batch.get(i).getId());
+            } else {
+                fail(batch.get(i), now, result.getFailure(i));
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            outboxEmailRepository.markSent(sentIds, OutboxStatus.SENT, now);
+        }
+        return sentIds.size();
+    }
+
+    private void fail(OutboxEmail email, LocalDateTime now, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        String error = String.valueOf(e.getMessage());
+        error = error.length() > 500 ? error.substring(0, 500) : error;
+        if (attempts >= MAX_ATTEMPTS) {
+            log.error("메일을 {} 번 보내지 못해 포기합니다. id={}", attempts, email.getId(), e);
+            outboxEmailRepository.markFailed(email.getId(), OutboxStatus.DEAD, now, error);
+            return;
+        }
+        log.warn("메일을 보내지 못했습니다. id={}, attempts={}", email.getId(), attempts, e);
+        outboxEmailRepository.markFailed(email.getId(), OutboxStatus.PENDING, now.plus(backoff(attempts)), error);
+    }
+
+    static Duration backoff(int attempts) {
+        Duration backoff = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
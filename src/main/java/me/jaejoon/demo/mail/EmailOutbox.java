@@ -0,0 +1,34 @@
+package me.jaejoon.demo.mail;
+
+import lombok.RequiredArgsConstructor;
+import me.jaejoon.demo.domain.OutboxEmail;
+import me.jaejoon.demo.domain.OutboxStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 메일을 바로 보내지 않고 호출한 트랜잭션 안에서 outbox 에 저장한다.
+ * 트랜잭션이 롤백되면 메일도 나가지 않고, SMTP 가 느려도 요청은 기다리지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutbox {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEmail enqueue(EmailMessage message) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEmailRepository.save(OutboxEmail.builder()
+                .recipient(message.getTo())
+                .subject(message.getSubject())
+                .message(message.getMessage())
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+}
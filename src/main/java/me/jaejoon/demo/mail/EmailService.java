@@ -1,5 +1,24 @@
 package me.jaejoon.demo.mail;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface EmailService {
     void sendEmail(EmailMessage message);
+
+    /**
+     * 여러 메일을 보내고 메일마다 성공/실패를 돌려준다. 한 메일이 실패해도 나머지는 보낸다.
+     */
+    default EmailBatchResult sendEmails(List<EmailMessage> messages) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                sendEmail(messages.get(i));
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+        return new EmailBatchResult(messages.size(), failures);
+    }
 }
@@ -3,12 +3,20 @@ package me.jaejoon.demo.mail;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Profile("dev")
 @Component
@@ -16,20 +24,70 @@ import javax.mail.internet.MimeMessage;
 @Slf4j
 public class HtmlEmailService implements EmailService{
 
+    // 한 연결로 너무 많이 보내면 relay 가 끊는 경우가 있어 나눠서 보낸다.
+    static final int MESSAGES_PER_CONNECTION = 100;
+
     private final JavaMailSender mailSender;
     @Override
     public void sendEmail(EmailMessage message){
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
         try {
-            MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage,false,"UTF-8");
-            messageHelper.setTo(message.getTo());
-            messageHelper.setSubject(message.getSubject());
-            messageHelper.setText(message.getMessage(),true);
-            mailSender.send(mimeMessage);
+            mailSender.send(toMimeMessage(message));
             log.info("sent email:{}",message.getSubject());
         } catch (MessagingException e) {
-            log.error("failed to send email",e);
+            // 실패를 알려야 EmailDispatcher 가 다시 보낸다.
+            throw new MailPreparationException(e);
+        }
+
+    }
+
+    /**
+     * MESSAGES_PER_CONNECTION 개씩 SMTP 연결 하나로 보낸다. (연결/STARTTLS 는 묶음마다 한번)
+     */
+    @Override
+    public EmailBatchResult sendEmails(List<EmailMessage> messages) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int from = 0; from < messages.size(); from += MESSAGES_PER_CONNECTION) {
+            sendChunk(messages, from, Math.min(from + MESSAGES_PER_CONNECTION, messages.size()), failures);
         }
+        EmailBatchResult result = new EmailBatchResult(messages.size(), failures);
+        log.info("sent emails:{}/{}", result.getSentCount(), result.getTotal());
+        return result;
+    }
 
+    private void sendChunk(List<EmailMessage> messages, int from, int to, Map<Integer, Exception> failures) {
+        Map<MimeMessage, Integer> indexes = new IdentityHashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            try {
+                MimeMessage mimeMessage = toMimeMessage(messages.get(i));
+                indexes.put(mimeMessage, i);
+                mimeMessages.add(mimeMessage);
+            } catch (MessagingException e) {
+                failures.put(i, new MailPreparationException(e));
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return;
+        }
+        try {
+            mailSender.send(mimeMessages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                indexes.values().forEach(i -> failures.put(i, e));
+            }
+            e.getFailedMessages().forEach((mimeMessage, cause) -> failures.put(indexes.get(mimeMessage), cause));
+        } catch (MailException e) {
+            // 연결이나 인증에 실패하면 묶음 전체가 실패한다.
+            indexes.values().forEach(i -> failures.put(i, e));
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage,false,"UTF-8");
+        messageHelper.setTo(message.getTo());
+        messageHelper.setSubject(message.getSubject());
+        messageHelper.setText(message.getMessage(),true);
+        return mimeMessage;
     }
 }
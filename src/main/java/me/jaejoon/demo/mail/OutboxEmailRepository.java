@@ -0,0 +1,44 @@
+package me.jaejoon.demo.mail;
+
+import me.jaejoon.demo.domain.OutboxEmail;
+import me.jaejoon.demo.domain.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    @Query("select e.id from OutboxEmail e where e.status = :status and e.nextAttemptAt <= :now order by e.id")
+    List<Long> findIdsToSend(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // 읽은 뒤에 다른 서버가 먼저 가져간 메일은 조건에 걸려 빠진다.
+    // 보내는 도중 서버가 죽어도 leaseUntil 이 지나면 다시 보낸다.
+    @Transactional
+    @Modifying
+    @Query("update OutboxEmail e set e.nextAttemptAt = :leaseUntil, e.leaseToken = :leaseToken " +
+            "where e.id in :ids and e.status = :status and e.nextAttemptAt <= :now")
+    int lease(@Param("ids") Collection<Long> ids, @Param("status") OutboxStatus status, @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("leaseToken") String leaseToken);
+
+    List<OutboxEmail> findByLeaseTokenOrderById(String leaseToken);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEmail e set e.status = :status, e.sentAt = :sentAt, e.attempts = e.attempts + 1 where e.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("status") OutboxStatus status, @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEmail e set e.status = :status, e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") OutboxStatus status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+}
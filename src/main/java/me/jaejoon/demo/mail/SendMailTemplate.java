@@ -0,0 +1,83 @@
+package me.jaejoon.demo.mail;
+
+import me.jaejoon.demo.config.AppProperties;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * mail/send-mail.html 을 변수 자리에 표시를 넣어 시작할 때 한번만 Thymeleaf 로 그리고, 표시 사이의 조각을 들고 있는다.
+ * 메일을 만들 때는 조각 사이에 escape 한 값만 이어 붙이므로 템플릿을 다시 해석하지 않는다.
+ * 값은 Thymeleaf 의 th:text/속성과 같은 방식으로 escape 한다.
+ * 템플릿에서는 변수를 th:text, th:href 로 출력만 해야 한다. (th:if, th:each 처럼 값에 따라 모양이 바뀌면 안 된다)
+ */
+@Component
+public class SendMailTemplate {
+
+    static final String TEMPLATE = "mail/send-mail";
+    static final String[] VARIABLES = {"nickname", "message", "host", "link", "linkName"};
+
+    private static final int NICKNAME = 0;
+    private static final int MESSAGE = 1;
+    private static final int HOST = 2;
+    private static final int LINK = 3;
+    private static final int LINK_NAME = 4;
+
+    // escape 되지 않는 글자로만 만든 표시
+    private static final Pattern MARKER = Pattern.compile("__mailvar(\\d)__");
+
+    private final String[] segments;
+    private final int[] variableAt;
+    private final String escapedHost;
+    private final int baseLength;
+
+    public SendMailTemplate(TemplateEngine templateEngine, AppProperties properties) {
+        Context context = new Context();
+        for (int i = 0; i < VARIABLES.length; i++) {
+            context.setVariable(VARIABLES[i], "__mailvar" + i + "__");
+        }
+        String rendered = templateEngine.process(TEMPLATE, context);
+
+        List<String> segments = new ArrayList<>();
+        List<Integer> variableAt = new ArrayList<>();
+        Matcher matcher = MARKER.matcher(rendered);
+        int from = 0;
+        while (matcher.find()) {
+            segments.add(rendered.substring(from, matcher.start()));
+            variableAt.add(Integer.parseInt(matcher.group(1)));
+            from = matcher.end();
+        }
+        segments.add(rendered.substring(from));
+
+        this.segments = segments.toArray(new String[0]);
+        this.variableAt = variableAt.stream().mapToInt(Integer::intValue).toArray();
+        this.escapedHost = escape(properties.getHost());
+        this.baseLength = segments.stream().mapToInt(String::length).sum();
+    }
+
+    public String render(String nickname, String message, String link, String linkName) {
+        String[] values = new String[VARIABLES.length];
+        values[NICKNAME] = escape(nickname);
+        values[MESSAGE] = escape(message);
+        values[HOST] = escapedHost;
+        values[LINK] = escape(link);
+        values[LINK_NAME] = escape(linkName);
+
+        StringBuilder html = new StringBuilder(baseLength + 256);
+        html.append(segments[0]);
+        for (int i = 0; i < variableAt.length; i++) {
+            html.append(values[variableAt[i]]).append(segments[i + 1]);
+        }
+        return html.toString();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : HtmlEscape.escapeHtml4Xml(value);
+    }
+}
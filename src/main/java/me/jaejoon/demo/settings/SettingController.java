@@ -1,10 +1,10 @@
 package me.jaejoon.demo.settings;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import me.jaejoon.demo.account.AccountService;
+import me.jaejoon.demo.account.AccountUniqueKeys;
 import me.jaejoon.demo.account.CurrentUser;
+import me.jaejoon.demo.avatar.InvalidAvatarException;
 import me.jaejoon.demo.domain.Account;
 import me.jaejoon.demo.domain.Tag;
 import me.jaejoon.demo.domain.Zone;
@@ -15,6 +15,7 @@ import me.jaejoon.demo.validation.NicknameFormValidation;
 import me.jaejoon.demo.validation.PasswordValidation;
 import me.jaejoon.demo.zone.ZoneRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -24,7 +25,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -48,8 +48,8 @@ public class SettingController {
     private final NicknameFormValidation nicknameFormValidation;
     private final TagRepository tagRepository;
     private final ZoneRepository zoneRepository;
-    private final ObjectMapper objectMapper;
     private final TagService tagService;
+    private final AccountUniqueKeys accountUniqueKeys;
 
     @InitBinder("passwordForm")
     public void initBinder(WebDataBinder webDataBinder){
@@ -62,12 +62,9 @@ public class SettingController {
     }
 
     @GetMapping(ZONES)
-    public String zoneUpdateForm(@CurrentUser Account account , Model model) throws JsonProcessingException {
+    public String zoneUpdateForm(@CurrentUser Account account , Model model) {
         Set<Zone> zones = service.getZoneTag(account);
         model.addAttribute("zones", zones.stream().map(Zone::toString).collect(Collectors.toList()));
-
-        List<String> collect = zoneRepository.findAll().stream().map(Zone::toString).collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(collect));
         return SETTINGS+ZONES;
     }
 
@@ -96,13 +93,10 @@ public class SettingController {
 
 
     @GetMapping(TAGS)
-    public String tagsUpdateForm(@CurrentUser Account account, Model model) throws JsonProcessingException {
+    public String tagsUpdateForm(@CurrentUser Account account, Model model) {
         Set<Tag> tags = service.getTags(account);
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         model.addAttribute("tags",tags.stream().map(Tag::getTitle).collect(Collectors.toList()));
-
-        List<String> collect = tagRepository.findAll().stream().map(Tag::getTitle).collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(collect));
         return SETTINGS+TAGS;
     }
 
@@ -129,7 +123,7 @@ public class SettingController {
 
     @GetMapping(ACCOUNT)
     public String accountUpdateForm(@CurrentUser Account account , Model model){
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         model.addAttribute(modelMapper.map(account, NicknameForm.class));
 
         return SETTINGS+ACCOUNT;
@@ -139,17 +133,29 @@ public class SettingController {
     public String accountUpdate(@CurrentUser Account account ,@Valid NicknameForm nicknameForm ,Errors errors
             ,Model model ,RedirectAttributes attributes ){
         if(errors.hasErrors()){
-            model.addAttribute(account);
+            model.addAttribute("account", account);
+            return SETTINGS+ACCOUNT;
+        }
+        String oldNickname = account.getNickname();
+        try {
+            service.updateNickName(account,nicknameForm);
+        } catch (DataIntegrityViolationException e) {
+            // filter 에 없던 닉네임이 다른 곳에서 먼저 저장된 경우
+            if (!accountUniqueKeys.nicknameExistsInDatabase(nicknameForm.getNickname())) {
+                throw e;
+            }
+            account.setNickname(oldNickname);
+            errors.rejectValue("nickname","nickname.duplicate","이미 존재하는 닉네임입니다.");
+            model.addAttribute("account", account);
             return SETTINGS+ACCOUNT;
         }
         attributes.addFlashAttribute("message","변경 되었습니다");
-        service.updateNickName(account,nicknameForm);
         return "redirect:/"+SETTINGS+ACCOUNT;
     }
 
     @GetMapping(NOTIFICATIONS)
     public String notificationsUpdateForm(@CurrentUser Account account , Model model){
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         model.addAttribute(modelMapper.map(account, Notifications.class));
         return SETTINGS+NOTIFICATIONS;
     }
@@ -158,7 +164,7 @@ public class SettingController {
     public String notificationUpdate(@CurrentUser Account account ,RedirectAttributes attributes
            , @Valid @ModelAttribute Notifications  notifications , Errors errors ,Model model){
         if(errors.hasErrors()){
-            model.addAttribute(account);
+            model.addAttribute("account", account);
             return SETTINGS+NOTIFICATIONS;
         }
         attributes.addFlashAttribute("message","변경되었습니다");
@@ -183,7 +189,7 @@ public class SettingController {
     }
     @GetMapping(PROFILE)
     public String profileUpdateForm(@CurrentUser Account account , Model model){
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         model.addAttribute(modelMapper.map(account, Profile.class));
         return SETTINGS+PROFILE;
     }
@@ -192,10 +198,16 @@ public class SettingController {
     public String profileUpdate(@CurrentUser Account account, @Valid @ModelAttribute Profile profile,
                                 Errors errors , Model model, RedirectAttributes redirectAttributes){
         if(errors.hasErrors()){
-            model.addAttribute(account);
+            model.addAttribute("account", account);
+            return SETTINGS+PROFILE;
+        }
+        try {
+            service.updateProfile(account ,profile);
+        } catch (InvalidAvatarException e) {
+            errors.rejectValue("profileImage", "invalid.image", e.getMessage());
+            model.addAttribute("account", account);
             return SETTINGS+PROFILE;
         }
-        service.updateProfile(account ,profile);
         redirectAttributes.addFlashAttribute("message","수정이 완료되었습니다");
         return "redirect:/"+SETTINGS+PROFILE;
     }
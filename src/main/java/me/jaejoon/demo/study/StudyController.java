@@ -1,20 +1,24 @@
 package me.jaejoon.demo.study;
 
 import lombok.RequiredArgsConstructor;
+import me.jaejoon.demo.account.AccountRepository;
 import me.jaejoon.demo.account.CurrentUser;
 import me.jaejoon.demo.domain.Account;
 import me.jaejoon.demo.domain.Study;
 import me.jaejoon.demo.study.form.StudyForm;
+import me.jaejoon.demo.study.view.MemberOrder;
+import me.jaejoon.demo.study.view.MemberPage;
+import me.jaejoon.demo.study.view.StudyView;
 import me.jaejoon.demo.study.validation.StudyFormValidation;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.WebDataBinder;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.InitBinder;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
 import java.net.URLEncoder;
@@ -28,6 +32,8 @@ public class StudyController {
     private final StudyService studyService;
     private final StudyFormValidation studyFormValidation;
     private final StudyRepository studyRepository;
+    private final StudyPathKeys studyPathKeys;
+    private final AccountRepository accountRepository;
 
     @InitBinder("studyForm")
     public void studyFormInitBinder(WebDataBinder webDataBinder){
@@ -36,7 +42,7 @@ public class StudyController {
 
     @GetMapping("/new-study")
     public String newStudyForm(@CurrentUser Account account , Model model){
-        model.addAttribute(account);
+        model.addAttribute("account", account);
         model.addAttribute(new StudyForm());
         return "study/form";
     }
@@ -45,39 +51,68 @@ public class StudyController {
     public String studyCreate(@CurrentUser Account account ,
                               @Valid StudyForm studyForm, Errors errors , Model model){
         if (errors.hasErrors()){
-            model.addAttribute(account);
+            model.addAttribute("account", account);
+            return "study/form";
+        }
+        Study study;
+        try {
+            study = studyService.createStudy(account, modelMapper.map(studyForm, Study.class));
+        } catch (DataIntegrityViolationException e) {
+            // filter 에 없던 path 가 다른 곳에서 먼저 저장된 경우
+            if (!studyPathKeys.pathExistsInDatabase(studyForm.getPath())) {
+                throw e;
+            }
+            errors.rejectValue("path","wrong.path","해당 URL 은 사용하실수 없습니다.");
+            // 롤백하면서 영속성 컨텍스트가 비워져 초기화되지 않은 proxy 는 더 읽을 수 없으므로 다시 얻는다.
+            model.addAttribute("account", accountRepository.getOne(account.getId()));
             return "study/form";
         }
-        Study study =studyService.createStudy(account,modelMapper.map(studyForm,Study.class));
         return "redirect:/study/" + URLEncoder.encode(study.getPath(), StandardCharsets.UTF_8);
     }
 
     @GetMapping("/study/{path}")
     public String viewStudy(@CurrentUser Account account , Model model, @PathVariable String path){
-        Study study = studyRepository.findByPath(path);
-        model.addAttribute(account);
-        model.addAttribute(study);
+        model.addAttribute("account", account);
+        model.addAttribute("study", studyService.getStudyView(account, path));
         return "study/view";
     }
 
     @GetMapping("/study/{path}/members")
     public String viewStudyMembers(@CurrentUser Account account, Model model , @PathVariable String path){
-        model.addAttribute(account);
-        model.addAttribute(studyRepository.findByPath(path));
+        StudyView study = studyService.getStudyView(account, path);
+        model.addAttribute("account", account);
+        model.addAttribute("study", study);
+        MemberPage members = studyService.getMembers(study.getId(), MemberOrder.NICKNAME, "");
+        model.addAttribute("managers", studyRepository.findManagers(study.getId()));
+        model.addAttribute("members", members.getMembers());
+        model.addAttribute("next", members.getNext());
         return "study/members";
     }
 
+    @GetMapping("/study/{path}/members/page")
+    @ResponseBody
+    public MemberPage viewStudyMembersPage(@PathVariable String path,
+                                           @RequestParam(defaultValue = "NICKNAME") MemberOrder order,
+                                           @RequestParam(defaultValue = "") String after){
+        if (!order.isValidKey(after)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 페이지 key 입니다.");
+        }
+        return studyService.getMembers(studyService.getStudyId(path), order, after);
+    }
+
     @GetMapping("/study/{path}/join")
     public String joinMember(@CurrentUser Account account, @PathVariable String path){
-        Study study = studyRepository.findAccountWithMemberByPath(path);
-        studyService.joinMember(account,study);
-        return "redirect:/study/"+URLEncoder.encode(study.getPath(), StandardCharsets.UTF_8)+"/members";
+        try {
+            studyService.joinMember(account, studyService.getStudyId(path));
+        } catch (DataIntegrityViolationException e) {
+            // 동시에 들어온 같은 가입 요청. 먼저 들어온 요청이 이미 가입시켰다.
+        }
+        return "redirect:/study/"+URLEncoder.encode(path, StandardCharsets.UTF_8)+"/members";
     }
 
     @GetMapping("/study/{path}/leave")
     public String leaveMember(@CurrentUser Account account, @PathVariable String path){
-        Study study = studyRepository.findAccountWithMemberByPath(path);
-        studyService.leaveMember(account,study);
-        return "redirect:/study/"+URLEncoder.encode(study.getPath(), StandardCharsets.UTF_8)+"/members";
+        studyService.leaveMember(account, studyService.getStudyId(path));
+        return "redirect:/study/"+URLEncoder.encode(path, StandardCharsets.UTF_8)+"/members";
     }
 }
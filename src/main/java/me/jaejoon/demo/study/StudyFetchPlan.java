@@ -0,0 +1,38 @@
+package me.jaejoon.demo.study;
+
+import me.jaejoon.demo.domain.Study;
+import org.hibernate.Hibernate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 기능별로 스터디와 함께 조회할 컬렉션을 정해둔다.
+ * 컬렉션은 join 하지 않고 하나씩 따로 조회하므로 쿼리 수는 1 + 컬렉션 수 이다.
+ */
+public enum StudyFetchPlan {
+
+    BANNER(Study::getManagers),
+    DESCRIPTION(Study::getManagers),
+    TITLE(Study::getManagers),
+    PATH(Study::getManagers),
+    STATUS(Study::getManagers),
+    TAGS(Study::getManagers, Study::getTags),
+    ZONES(Study::getManagers, Study::getZones);
+
+    private final List<Function<Study, Collection<?>>> collections;
+
+    @SafeVarargs
+    StudyFetchPlan(Function<Study, Collection<?>>... collections) {
+        this.collections = List.of(collections);
+    }
+
+    void load(Study study) {
+        collections.forEach(collection -> Hibernate.initialize(collection.apply(study)));
+    }
+
+    public int getQueryCount() {
+        return 1 + collections.size();
+    }
+}
@@ -0,0 +1,49 @@
+package me.jaejoon.demo.study;
+
+import me.jaejoon.demo.domain.StudyMember;
+import me.jaejoon.demo.study.view.StudyMemberView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface StudyMemberRepository extends JpaRepository<StudyMember, Long> {
+
+    boolean existsByStudyIdAndAccountId(Long studyId, Long accountId);
+
+    // 이미 가입했으면 0 을 돌려준다. 동시에 들어온 같은 가입은 unique 제약에 걸린다.
+    @Transactional
+    @Modifying
+    @Query(value = "insert into study_member (study_id, account_id, joined_at) select :studyId, :accountId, :joinedAt " +
+            "where not exists (select 1 from study_member where study_id = :studyId and account_id = :accountId)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("studyId") Long studyId, @Param("accountId") Long accountId,
+                       @Param("joinedAt") LocalDateTime joinedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StudyMember m where m.study.id = :studyId and m.account.id = :accountId")
+    int deleteByStudyIdAndAccountId(@Param("studyId") Long studyId, @Param("accountId") Long accountId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StudyMember m where m.study.id = :studyId")
+    int deleteByStudyId(@Param("studyId") Long studyId);
+
+    // offset 대신 마지막으로 읽은 nickname 다음부터 읽는다.
+    @Query("select m.id as id, a.nickname as nickname, a.avatar as avatar, a.bio as bio " +
+            "from StudyMember m join m.account a where m.study.id = :studyId and a.nickname > :after order by a.nickname")
+    List<StudyMemberView> findByNicknameAfter(@Param("studyId") Long studyId, @Param("after") String after, Pageable pageable);
+
+    @Query("select m.id as id, a.nickname as nickname, a.avatar as avatar, a.bio as bio " +
+            "from StudyMember m join m.account a where m.study.id = :studyId and m.id > :after order by m.id")
+    List<StudyMemberView> findByJoinedAfter(@Param("studyId") Long studyId, @Param("after") Long after, Pageable pageable);
+}
@@ -0,0 +1,43 @@
+package me.jaejoon.demo.study;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.jaejoon.demo.config.AppProperties;
+import me.jaejoon.demo.config.UniqueKeyFilter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 스터디 경로 중복 확인. 사용 중이 아닌 것이 확실하면 DB 를 보지 않는다.
+ */
+@Component
+public class StudyPathKeys {
+
+    private final StudyRepository studyRepository;
+    private final UniqueKeyFilter paths;
+
+    public StudyPathKeys(StudyRepository studyRepository, JdbcTemplate jdbcTemplate,
+                         AppProperties properties, MeterRegistry meterRegistry) {
+        this.studyRepository = studyRepository;
+        this.paths = new UniqueKeyFilter("study.path", jdbcTemplate, "study", "path",
+                properties.getUniqueFilter().getFpp(), meterRegistry);
+    }
+
+    public boolean pathExists(String path) {
+        return paths.exists(path, studyRepository::existsByPath);
+    }
+
+    // 저장하다 unique 제약에 걸렸을 때 DB 로 확인한다.
+    public boolean pathExistsInDatabase(String path) {
+        return paths.existsInDatabase(path);
+    }
+
+    public void addPath(String path) {
+        paths.add(path);
+    }
+
+    @Scheduled(fixedDelayString = "${app.unique-filter.rebuild-delay:PT10M}")
+    public void rebuild() {
+        paths.rebuild();
+    }
+}
@@ -1,28 +1,66 @@
 package me.jaejoon.demo.study;
 
 import me.jaejoon.demo.domain.Study;
-import org.springframework.data.jpa.repository.EntityGraph;
+import me.jaejoon.demo.domain.Zone;
+import me.jaejoon.demo.study.view.MemberView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 @Transactional(readOnly = true)
 public interface StudyRepository extends JpaRepository<Study,Long> {
     boolean existsByPath(String path);
 
-    @EntityGraph(value = "Study.withAll",type = EntityGraph.EntityGraphType.LOAD)
     Study findByPath(String path);
 
-    @EntityGraph(value = "Study.withTagsAndManagers", type = EntityGraph.EntityGraphType.FETCH)
-    Study findAccountWithTagsByPath(String path);
+    @Query("select s.id from Study s where s.path = :path")
+    Long findIdByPath(@Param("path") String path);
+
+    @Query("select s.id from Study s join s.managers m where s.path = :path and m.id = :accountId")
+    Long findIdByPathAndManagerId(@Param("path") String path, @Param("accountId") Long accountId);
+
+    boolean existsByIdAndManagersId(Long id, Long accountId);
+
+    // 상태 변경은 조건을 where 에 넣은 update 한 번으로 한다. 바뀐 row 가 없으면 0 을 돌려준다.
+    @Transactional
+    @Modifying
+    @Query("update Study s set s.published = true, s.publishedDateTime = :now " +
+            "where s.id = :studyId and s.published = false and s.closed = false")
+    int publish(@Param("studyId") Long studyId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update Study s set s.closed = true, s.closedDateTime = :now " +
+            "where s.id = :studyId and s.published = true and s.closed = false")
+    int close(@Param("studyId") Long studyId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update Study s set s.recruiting = :recruiting, s.recruitingUpdateDateTime = :now " +
+            "where s.id = :studyId and s.published = true " +
+            "and (s.recruitingUpdateDateTime is null or s.recruitingUpdateDateTime < :lastUpdateBefore)")
+    int updateRecruiting(@Param("studyId") Long studyId, @Param("recruiting") boolean recruiting,
+                         @Param("now") LocalDateTime now, @Param("lastUpdateBefore") LocalDateTime lastUpdateBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update Study s set s.memberCount = s.memberCount + :delta where s.id = :studyId")
+    int addMemberCount(@Param("studyId") Long studyId, @Param("delta") int delta);
 
-    @EntityGraph(value = "Study.withZonesAndManagers", type = EntityGraph.EntityGraphType.FETCH)
-    Study findAccountWithZonesByPath(String path);
+    @Query("select t.title from Study s join s.tags t where s.id = :studyId order by t.title")
+    List<String> findTagTitles(@Param("studyId") Long studyId);
 
-    @EntityGraph(value = "Study.Managers" , type = EntityGraph.EntityGraphType.FETCH)
-    Study findAccountWithManagerByPath(String path);
+    @Query("select z from Study s join s.zones z where s.id = :studyId")
+    List<Zone> findZones(@Param("studyId") Long studyId);
 
-    @EntityGraph(value = "Study.Members" , type = EntityGraph.EntityGraphType.FETCH)
-    Study findAccountWithMemberByPath(String path);
+    @Query("select m.nickname as nickname, m.avatar as avatar, m.bio as bio " +
+            "from Study s join s.managers m where s.id = :studyId order by m.nickname")
+    List<MemberView> findManagers(@Param("studyId") Long studyId);
 }
@@ -6,38 +6,100 @@ import me.jaejoon.demo.domain.Study;
 import me.jaejoon.demo.domain.Tag;
 import me.jaejoon.demo.domain.Zone;
 import me.jaejoon.demo.study.form.StudyDescriptionForm;
+import me.jaejoon.demo.study.view.MemberOrder;
+import me.jaejoon.demo.study.view.MemberPage;
+import me.jaejoon.demo.study.view.StudyMemberView;
+import me.jaejoon.demo.study.view.StudyView;
+import me.jaejoon.demo.tag.TagUsageChangedEvent;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class StudyService {
+    static final int MEMBERS_PAGE_SIZE = 20;
+    static final int RECRUITING_UPDATE_INTERVAL_HOURS = 1;
+
     private final StudyRepository studyRepository;
+    private final StudyMemberRepository studyMemberRepository;
     private final ModelMapper modelMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StudyPathKeys studyPathKeys;
 
     public Study createStudy(Account account, Study study) {
-        Study newStudy = studyRepository.save(study);
+        Study newStudy = studyRepository.saveAndFlush(study);
+        studyPathKeys.addPath(newStudy.getPath());
         newStudy.addManger(account);
         return newStudy;
     }
 
-    public Study getStudy(String path) {
+    // 컬렉션을 한번에 join 하면 row 가 tags x members x managers x zones 만큼 늘어나므로 컬렉션마다 따로 조회한다.
+    public Study getStudy(String path, StudyFetchPlan fetchPlan) {
         Study study = studyRepository.findByPath(path);
         checkExistingStudy(path, study);
+        fetchPlan.load(study);
         return study;
     }
 
-
-
-    public Study getStudyToUpdate(Account account, String path) {
-        Study study = getStudy(path);
+    public Study getStudyToUpdate(Account account, String path, StudyFetchPlan fetchPlan) {
+        Study study = getStudy(path, fetchPlan);
         checkManager(account, study);
         return study;
     }
 
+    // 관리자 그래프를 읽지 않고 관리자인 경우에만 스터디 id 를 돌려준다.
+    @Transactional(readOnly = true)
+    public Long getStudyIdToUpdate(Account account, String path) {
+        Long id = studyRepository.findIdByPathAndManagerId(path, account.getId());
+        if (id == null) {
+            getStudyId(path);
+            throw new AccessDeniedException("해당 기능을 사용할 수 없습니다");
+        }
+        return id;
+    }
+
+    @Transactional(readOnly = true)
+    public StudyView getStudyView(Account account, String path) {
+        Study study = studyRepository.findByPath(path);
+        checkExistingStudy(path, study);
+        Long id = study.getId();
+        return StudyView.builder()
+                .id(id)
+                .path(study.getPath())
+                .title(study.getTitle())
+                .shortDescription(study.getShortDescription())
+                .fullDescription(study.getFullDescription())
+                .image(study.getImage())
+                .useBanner(study.isUseBanner())
+                .published(study.isPublished())
+                .closed(study.isClosed())
+                .recruiting(study.isRecruiting())
+                .closedDateTime(study.getClosedDateTime())
+                .memberCount(study.getMemberCount())
+                .tags(studyRepository.findTagTitles(id))
+                .zones(studyRepository.findZones(id))
+                .member(account != null && studyMemberRepository.existsByStudyIdAndAccountId(id, account.getId()))
+                .manager(account != null && studyRepository.existsByIdAndManagersId(id, account.getId()))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public StudyView getStudyViewToUpdate(Account account, String path) {
+        StudyView studyView = getStudyView(account, path);
+        if (!studyView.isManager()) {
+            throw new AccessDeniedException("해당 기능을 사용할 수 없습니다");
+        }
+        return studyView;
+    }
+
 
     public void updateStudyDescription(Study study, StudyDescriptionForm studyDescriptionForm) {
         modelMapper.map(studyDescriptionForm,study);
@@ -51,11 +113,26 @@ public class StudyService {
         study.setImage(image);
     }
 
-    public Study getStudyZonesToUpdate(Account account, String path) {
-        Study study = studyRepository.findAccountWithZonesByPath(path);
-        checkExistingStudy(path,study);
-        checkManager(account,study);
-        return study;
+    @Transactional(readOnly = true)
+    public Long getStudyId(String path) {
+        Long id = studyRepository.findIdByPath(path);
+        if (id == null) {
+            throw new IllegalArgumentException(path +"에 해당하는 스터디가 없습니다");
+        }
+        return id;
+    }
+
+    @Transactional(readOnly = true)
+    public MemberPage getMembers(Long studyId, MemberOrder order, String after) {
+        PageRequest page = PageRequest.of(0, MEMBERS_PAGE_SIZE);
+        List<StudyMemberView> members = order == MemberOrder.JOINED
+                ? studyMemberRepository.findByJoinedAfter(studyId, after.isEmpty() ? 0L : Long.valueOf(after), page)
+                : studyMemberRepository.findByNicknameAfter(studyId, after, page);
+        if (members.size() < MEMBERS_PAGE_SIZE) {
+            return new MemberPage(members, null);
+        }
+        StudyMemberView last = members.get(members.size() - 1);
+        return new MemberPage(members, order == MemberOrder.JOINED ? String.valueOf(last.getId()) : last.getNickname());
     }
 
     private void checkExistingStudy(String path, Study study) {
@@ -70,13 +147,6 @@ public class StudyService {
         }
     }
 
-    public Study getStudyTagsToUpdate(Account account, String path) {
-        Study study = studyRepository.findAccountWithTagsByPath(path);
-        checkExistingStudy(path,study);
-        checkManager(account,study);
-        return study;
-    }
-
     public void addZones(Study study, Zone zone) {
         study.getZones().add(zone);
     }
@@ -86,45 +156,50 @@ public class StudyService {
     }
 
     public void addTags(Study study, Tag tag) {
-        study.getTags().add(tag);
+        if (study.getTags().add(tag)) {
+            eventPublisher.publishEvent(new TagUsageChangedEvent(tag.getTitle(), 1));
+        }
     }
 
     public void removeTags(Study study, Tag tag) {
-        study.getTags().remove(tag);
+        if (study.getTags().remove(tag)) {
+            eventPublisher.publishEvent(new TagUsageChangedEvent(tag.getTitle(), -1));
+        }
     }
 
-    public Study getStudyToUpdateStatus(Account account, String path) {
-        Study study = studyRepository.findAccountWithManagerByPath(path);
-        checkExistingStudy(path,study);
-        checkManager(account,study);
-        return study;
+    // 동시에 눌러도 조건을 만족한 update 한 번만 성공하므로 상태 변경 여부를 돌려준다.
+    public boolean publish(Long studyId) {
+        return studyRepository.publish(studyId, LocalDateTime.now()) == 1;
     }
 
-    public void publish(Study study) {
-        study.publish();
+    public boolean close(Long studyId) {
+        return studyRepository.close(studyId, LocalDateTime.now()) == 1;
     }
 
-    public void closed(Study study) {
-        study.closed();
+    public boolean startRecruit(Long studyId) {
+        return updateRecruiting(studyId, true);
     }
 
-    public void startRecruit(Study study) {
-        study.startRecruiting();
+    public boolean stopRecruit(Long studyId) {
+        return updateRecruiting(studyId, false);
     }
 
-    public void stopRecruit(Study study) {
-        study.stopRecruiting();
+    private boolean updateRecruiting(Long studyId, boolean recruiting) {
+        LocalDateTime now = LocalDateTime.now();
+        return studyRepository.updateRecruiting(studyId, recruiting, now, now.minusHours(RECRUITING_UPDATE_INTERVAL_HOURS)) == 1;
     }
 
     public boolean isPathValid(String newPath) {
         if(!newPath.matches("^[ㄱ-ㅎ가-힣a-z0-9_-]{2,20}$")){
             return false;
         }
-        return !studyRepository.existsByPath(newPath);
+        return !studyPathKeys.pathExists(newPath);
     }
 
     public void updateStudyPath(Study study, String newPath) {
         study.setPath(newPath);
+        studyPathKeys.addPath(newPath);
+        studyRepository.flush();
     }
 
     public boolean isTitleValid(String newTitle) {
@@ -138,17 +213,23 @@ public class StudyService {
 
     public void remove(Study study) {
         if (study.isRemovable()) {
+            studyMemberRepository.deleteByStudyId(study.getId());
             studyRepository.delete(study);
         } else {
             throw new IllegalArgumentException("스터디를 삭제할 수 없습니다.");
         }
     }
 
-    public void joinMember(Account account, Study study) {
-        study.getMembers().add(account);
+    // 가입 row 를 실제로 넣거나 지운 경우에만 맴버 수를 바꾸므로 같은 요청이 두 번 와도 수가 어긋나지 않는다.
+    public void joinMember(Account account, Long studyId) {
+        if (studyMemberRepository.insertIfAbsent(studyId, account.getId(), LocalDateTime.now()) == 1) {
+            studyRepository.addMemberCount(studyId, 1);
+        }
     }
 
-    public void leaveMember(Account account, Study study) {
-        study.getMembers().remove(account);
+    public void leaveMember(Account account, Long studyId) {
+        if (studyMemberRepository.deleteByStudyIdAndAccountId(studyId, account.getId()) == 1) {
+            studyRepository.addMemberCount(studyId, -1);
+        }
     }
 }
@@ -1,7 +1,5 @@
 package me.jaejoon.demo.study;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import me.jaejoon.demo.account.CurrentUser;
 import me.jaejoon.demo.domain.Account;
@@ -11,10 +9,12 @@ import me.jaejoon.demo.domain.Zone;
 import me.jaejoon.demo.form.TagForm;
 import me.jaejoon.demo.form.ZoneForm;
 import me.jaejoon.demo.study.form.StudyDescriptionForm;
+import me.jaejoon.demo.study.view.StudyView;
 import me.jaejoon.demo.tag.TagRepository;
 import me.jaejoon.demo.tag.TagService;
 import me.jaejoon.demo.zone.ZoneRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -25,7 +25,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import javax.validation.Valid;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -38,14 +37,14 @@ public class StudySettingController {
     private final TagService tagService;
     private final TagRepository tagRepository;
     private final ZoneRepository zoneRepository;
-    private final ObjectMapper objectMapper;
+    private final StudyPathKeys studyPathKeys;
 
 
     @GetMapping("/description")
     public String viewStudySetting(@CurrentUser Account account, Model model, @PathVariable String path){
-        Study study = studyService.getStudyToUpdate(account, path);
-        model.addAttribute(study);
-        model.addAttribute(account);
+        StudyView study = studyService.getStudyViewToUpdate(account, path);
+        model.addAttribute("study", study);
+        model.addAttribute("account", account);
         model.addAttribute(modelMapper.map(study,StudyDescriptionForm.class));
         return "study/description";
     }
@@ -54,10 +53,10 @@ public class StudySettingController {
     public String updateStudyInfo(@CurrentUser Account account, @PathVariable String path,
                                   Model model, @Valid  StudyDescriptionForm studyDescriptionForm, Errors errors,
                                   RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.DESCRIPTION);
         if(errors.hasErrors()){
-            model.addAttribute(account);
-            model.addAttribute(study);
+            model.addAttribute("account", account);
+            model.addAttribute("study", studyService.getStudyView(account, path));
             return "study/description";
         }
         studyService.updateStudyDescription(study,studyDescriptionForm);
@@ -70,15 +69,14 @@ public class StudySettingController {
 
     @GetMapping("banner")
     public String viewStudyBanner(@CurrentUser Account account , @PathVariable String path, Model model){
-        Study studyToUpdate = studyService.getStudyToUpdate(account, path);
-        model.addAttribute(studyToUpdate);
-        model.addAttribute(account);
+        model.addAttribute("study", studyService.getStudyViewToUpdate(account, path));
+        model.addAttribute("account", account);
         return "study/banner";
     }
     @PostMapping("/banner")
     public String studyImageSubmit(@CurrentUser Account account, @PathVariable String path,
                                    String image, RedirectAttributes attributes) {
-        Study study = studyService.getStudyToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.BANNER);
         studyService.updateStudyImage(study, image);
         attributes.addFlashAttribute("message", "스터디 이미지를 수정했습니다.");
         return "redirect:/study/" + getPath(path) + "/settings/banner";
@@ -86,7 +84,7 @@ public class StudySettingController {
 
     @PostMapping("banner/enable")
     public String bannerEnable(@CurrentUser Account account , @PathVariable String path,RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.BANNER);
         studyService.onOffBanner(study,true);
         attributes.addFlashAttribute("message","변경되었습니다");
         return "redirect:/study/"+getPath(path)+"/settings/banner";
@@ -94,28 +92,26 @@ public class StudySettingController {
 
     @PostMapping("banner/disable")
     public String bannerDisable(@CurrentUser Account account , @PathVariable String path,RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.BANNER);
         studyService.onOffBanner(study,false);
         attributes.addFlashAttribute("message","변경되었습니다");
         return "redirect:/study/"+getPath(path)+"/settings/banner";
     }
 
     @GetMapping("/zones")
-    public String viewSettingsZones(@CurrentUser Account account ,Model model,@PathVariable String path) throws JsonProcessingException {
-        Study study = studyService.getStudyToUpdate(account, path);
-        model.addAttribute(account);
-        model.addAttribute(study);
+    public String viewSettingsZones(@CurrentUser Account account ,Model model,@PathVariable String path) {
+        StudyView study = studyService.getStudyViewToUpdate(account, path);
+        model.addAttribute("account", account);
+        model.addAttribute("study", study);
         model.addAttribute("zones",study.getZones()
                 .stream().map(Zone::toString).collect(Collectors.toList()));
-        List<String> allZones = zoneRepository.findAll().stream().map(Zone::toString).collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(allZones));
         return "study/zones";
     }
 
     @PostMapping("/zones/add")
     @ResponseBody
     public ResponseEntity addZones(@CurrentUser Account account,@PathVariable String path, @RequestBody ZoneForm zoneForm){
-        Study study = studyService.getStudyZonesToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.ZONES);
         Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(),
                 zoneForm.getProvinceName());
         if(zone==null){
@@ -129,7 +125,7 @@ public class StudySettingController {
     @PostMapping("/zones/remove")
     @ResponseBody
     public ResponseEntity removeZones(@CurrentUser Account account , @PathVariable String path, @RequestBody ZoneForm zoneForm){
-        Study study = studyService.getStudyZonesToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.ZONES);
         Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(),
                 zoneForm.getProvinceName());
         if(zone==null){
@@ -141,25 +137,19 @@ public class StudySettingController {
     }
 
     @GetMapping("/tags")
-    public String viewSettingsTags(@CurrentUser Account account, Model model , @PathVariable String path) throws JsonProcessingException {
-        Study study = studyService.getStudyToUpdate(account, path);
-        model.addAttribute(study);
-        model.addAttribute(account);
-        model.addAttribute("tags",study.getTags()
-                .stream().map(Tag::getTitle).collect(Collectors.toList()));
-        List<String> allTags = tagRepository.findAll().stream().map(Tag::getTitle).collect(Collectors.toList());
-        model.addAttribute("whitelist",objectMapper.writeValueAsString(allTags));
+    public String viewSettingsTags(@CurrentUser Account account, Model model , @PathVariable String path) {
+        StudyView study = studyService.getStudyViewToUpdate(account, path);
+        model.addAttribute("study", study);
+        model.addAttribute("account", account);
+        model.addAttribute("tags",study.getTags());
         return "study/tags";
     }
 
     @ResponseBody
     @PostMapping("tags/add")
     public ResponseEntity addTags(@CurrentUser Account account , @RequestBody TagForm tagForm ,@PathVariable String path){
-        Study study = studyService.getStudyTagsToUpdate(account, path);
-        Tag tag = tagRepository.findByTitle(tagForm.getTagTitle());
-        if(tag==null){
-            tag = tagService.findOrCreateNew(tagForm.getTagTitle());
-        }
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.TAGS);
+        Tag tag = tagService.findOrCreateNew(tagForm.getTagTitle());
         studyService.addTags(study,tag);
         return ResponseEntity.ok().build();
     }
@@ -168,7 +158,7 @@ public class StudySettingController {
     @ResponseBody
     @PostMapping("tags/remove")
     public ResponseEntity removeTags(@CurrentUser Account account , @RequestBody TagForm tagForm ,@PathVariable String path){
-        Study study = studyService.getStudyTagsToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.TAGS);
         Tag tag = tagRepository.findByTitle(tagForm.getTagTitle());
         if(tag==null){
             return ResponseEntity.badRequest().build();
@@ -179,67 +169,75 @@ public class StudySettingController {
 
     @GetMapping("/study")
     public String studySettingForm(@CurrentUser Account account , @PathVariable String path, Model model){
-        Study study = studyService.getStudyToUpdate(account, path);
-        model.addAttribute(study);
-        model.addAttribute(account);
+        model.addAttribute("study", studyService.getStudyViewToUpdate(account, path));
+        model.addAttribute("account", account);
         return "study/study";
     }
 
     @PostMapping("/study/publish")
     public String publishStudy(@CurrentUser Account account,@PathVariable String path,
                                RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdateStatus(account,path);
-        studyService.publish(study);
-        attributes.addFlashAttribute("message","스터디를 공개했습니다");
+        if (studyService.publish(studyService.getStudyIdToUpdate(account, path))) {
+            attributes.addFlashAttribute("message","스터디를 공개했습니다");
+        } else {
+            attributes.addFlashAttribute("message","스터디를 공개할 수 없는 상태입니다. 스터디를 이미 공개했거나 종료했습니다.");
+        }
         return "redirect:/study/"+getPath(path)+"/settings/study";
     }
 
     @PostMapping("/study/close")
     public String closedStudy(@CurrentUser Account account, @PathVariable String path,
                               RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdateStatus(account, path);
-        studyService.closed(study);
-        attributes.addFlashAttribute("message","스터디를 종료했습니다");
+        if (studyService.close(studyService.getStudyIdToUpdate(account, path))) {
+            attributes.addFlashAttribute("message","스터디를 종료했습니다");
+        } else {
+            attributes.addFlashAttribute("message","스터디를 종료할 수 없습니다. 스터디를 공개하지 않았거나 이미 종료한 스터디입니다.");
+        }
         return "redirect:/study/"+getPath(path)+"/settings/study";
     }
 
     @PostMapping("/recruit/start")
     public String startRecruit(@CurrentUser Account account, @PathVariable String path,
                                RedirectAttributes attributes) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
-        if (!study.canUpdateRecruiting()) {
+        if (studyService.startRecruit(studyService.getStudyIdToUpdate(account, path))) {
+            attributes.addFlashAttribute("message", "인원모집을 시작 했습니다");
+        } else {
             attributes.addFlashAttribute("message", "1시간 안에 인원 모집 설정을 여러번 변경할 수 없습니다");
-            return "redirect:/study/" + getPath(path) + "/settings/study";
         }
-        studyService.startRecruit(study);
-        attributes.addFlashAttribute("message", "인원모집을 시작 했습니다");
         return "redirect:/study/" + getPath(path) + "/settings/study";
 
     }
     @PostMapping("/recruit/stop")
     public String stopRecruit(@CurrentUser Account account, @PathVariable String path,
                                RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdateStatus(account, path);
-        if(!study.canUpdateRecruiting()){
+        if (studyService.stopRecruit(studyService.getStudyIdToUpdate(account, path))) {
+            attributes.addFlashAttribute("message","인원모집을 종료 했습니다");
+        } else {
             attributes.addFlashAttribute("message","1시간 안에 인원 모집 설정을 여러번 변경할 수 없습니다");
-            return "redirect:/study/"+getPath(path)+"/settings/study";
         }
-        studyService.stopRecruit(study);
-        attributes.addFlashAttribute("message","인원모집을 종료 했습니다");
         return "redirect:/study/"+getPath(path)+"/settings/study";
     }
 
     @PostMapping("/study/path")
     public String editPath(@CurrentUser Account account, @PathVariable String path,
                            @RequestParam String newPath,RedirectAttributes attributes){
-        Study study = studyService.getStudyToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.PATH);
 
         if(!studyService.isPathValid(newPath)) {
             attributes.addFlashAttribute("studyPathError", "해당 스터디 경로는 사용할 수 없습니다");
             return "redirect:/study/"+getPath(path)+"/settings/study";
         }
 
-        studyService.updateStudyPath(study,newPath);
+        try {
+            studyService.updateStudyPath(study,newPath);
+        } catch (DataIntegrityViolationException e) {
+            // filter 에 없던 path 가 다른 곳에서 먼저 저장된 경우
+            if (!studyPathKeys.pathExistsInDatabase(newPath)) {
+                throw e;
+            }
+            attributes.addFlashAttribute("studyPathError", "해당 스터디 경로는 사용할 수 없습니다");
+            return "redirect:/study/"+getPath(path)+"/settings/study";
+        }
         attributes.addFlashAttribute("message","path 가 변경되었습니다");
         return "redirect:/study/"+getPath(newPath)+"/settings/study";
     }
@@ -247,11 +245,11 @@ public class StudySettingController {
     @PostMapping("/study/title")
     public String editTitle(@CurrentUser Account account, @PathVariable String path,
                            @RequestParam String newTitle,RedirectAttributes attributes,Model model){
-        Study study = studyService.getStudyToUpdate(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.TITLE);
 
         if(!studyService.isTitleValid(newTitle)){
-            model.addAttribute(study);
-            model.addAttribute(account);
+            model.addAttribute("study", studyService.getStudyView(account, path));
+            model.addAttribute("account", account);
             model.addAttribute("studyTitleError","해당 스터디 이름을 사용 할 수 없습니다");
             return "study/study";
         }
@@ -263,7 +261,7 @@ public class StudySettingController {
 
     @PostMapping("/study/remove")
     public String removeStudy(@CurrentUser Account account, @PathVariable String path) {
-        Study study = studyService.getStudyToUpdateStatus(account, path);
+        Study study = studyService.getStudyToUpdate(account, path, StudyFetchPlan.STATUS);
         studyService.remove(study);
         return "redirect:/";
     }
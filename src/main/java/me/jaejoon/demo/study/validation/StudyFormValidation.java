@@ -1,7 +1,7 @@
 package me.jaejoon.demo.study.validation;
 
 import lombok.RequiredArgsConstructor;
-import me.jaejoon.demo.study.StudyRepository;
+import me.jaejoon.demo.study.StudyPathKeys;
 import me.jaejoon.demo.study.form.StudyForm;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
@@ -10,7 +10,7 @@ import org.springframework.validation.Validator;
 @Component
 @RequiredArgsConstructor
 public class StudyFormValidation implements Validator {
-    private final StudyRepository studyRepository;
+    private final StudyPathKeys studyPathKeys;
     @Override
     public boolean supports(Class<?> clazz) {
         return StudyForm.class.isAssignableFrom(clazz);
@@ -20,7 +20,7 @@ public class StudyFormValidation implements Validator {
     public void validate(Object target, Errors errors) {
         StudyForm studyForm = (StudyForm) target;
 
-        if(studyRepository.existsByPath(studyForm.getPath())){
+        if(studyPathKeys.pathExists(studyForm.getPath())){
             errors.rejectValue("path","wrong.path","해당 URL 은 사용하실수 없습니다.");
         }
     }
@@ -0,0 +1,21 @@
+package me.jaejoon.demo.study.view;
+
+/**
+ * 맴버 목록 정렬 기준. NICKNAME 은 마지막 nickname, JOINED 는 마지막 가입 id 를 다음 페이지 key 로 쓴다.
+ */
+public enum MemberOrder {
+    NICKNAME, JOINED;
+
+    // 빈 key 는 첫 페이지다. JOINED 의 key 는 id 이므로 숫자여야 한다.
+    public boolean isValidKey(String after) {
+        if (this != JOINED || after.isEmpty()) {
+            return true;
+        }
+        try {
+            Long.parseLong(after);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
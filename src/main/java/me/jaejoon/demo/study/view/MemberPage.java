@@ -0,0 +1,18 @@
+package me.jaejoon.demo.study.view;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 맴버 목록의 한 페이지. next 는 다음 페이지를 요청할 때 넘길 key 이고 마지막 페이지면 null 이다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MemberPage {
+
+    private final List<? extends MemberView> members;
+
+    private final String next;
+}
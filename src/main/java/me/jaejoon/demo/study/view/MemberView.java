@@ -0,0 +1,10 @@
+package me.jaejoon.demo.study.view;
+
+public interface MemberView {
+
+    String getNickname();
+
+    String getAvatar();
+
+    String getBio();
+}
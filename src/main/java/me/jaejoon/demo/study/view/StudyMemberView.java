@@ -0,0 +1,12 @@
+package me.jaejoon.demo.study.view;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 맴버 목록의 한 줄. id 는 가입순 페이지의 key 로만 쓰고 응답에는 내보내지 않는다.
+ */
+public interface StudyMemberView extends MemberView {
+
+    @JsonIgnore
+    Long getId();
+}
@@ -0,0 +1,57 @@
+package me.jaejoon.demo.study.view;
+
+import lombok.Builder;
+import lombok.Getter;
+import me.jaejoon.demo.domain.Zone;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 스터디 화면을 그리는데 필요한 값만 담은 읽기 전용 객체.
+ * 맴버 목록 대신 맴버 수를, 조회한 사용자의 역할은 미리 계산해서 가지고 있는다.
+ */
+@Getter
+@Builder
+public class StudyView {
+
+    private final Long id;
+
+    private final String path;
+
+    private final String title;
+
+    private final String shortDescription;
+
+    private final String fullDescription;
+
+    private final String image;
+
+    private final boolean useBanner;
+
+    private final boolean published;
+
+    private final boolean closed;
+
+    private final boolean recruiting;
+
+    private final LocalDateTime closedDateTime;
+
+    private final long memberCount;
+
+    private final List<String> tags;
+
+    private final List<Zone> zones;
+
+    private final boolean member;
+
+    private final boolean manager;
+
+    public boolean isJoinable() {
+        return this.published && this.recruiting && !this.member && !this.manager;
+    }
+
+    public boolean isRemovable() {
+        return !this.published;
+    }
+}
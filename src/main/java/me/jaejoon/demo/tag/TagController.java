@@ -0,0 +1,23 @@
+package me.jaejoon.demo.tag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class TagController {
+
+    private final TagSuggestService tagSuggestService;
+
+    @GetMapping("/tags/suggest")
+    @ResponseBody
+    public List<String> suggest(@RequestParam String q,
+                                @RequestParam(defaultValue = "" + TagSuggestService.DEFAULT_LIMIT) int limit) {
+        return tagSuggestService.suggest(q, limit);
+    }
+}
@@ -0,0 +1,14 @@
+package me.jaejoon.demo.tag;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 새 태그가 저장되면 발행한다. 태그 목록을 들고 있는 곳은 커밋 뒤에 받아서 그 태그만 더한다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TagCreatedEvent {
+
+    private final String title;
+}
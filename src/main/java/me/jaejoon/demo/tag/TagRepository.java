@@ -1,11 +1,37 @@
 package me.jaejoon.demo.tag;
 
+import me.jaejoon.demo.config.CacheConfig;
 import me.jaejoon.demo.domain.Tag;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 
 @Transactional(readOnly = true)
 public interface TagRepository extends JpaRepository<Tag,Long> {
+    @Override
+    @Cacheable(CacheConfig.TAGS)
+    List<Tag> findAll();
+
+    @Cacheable(cacheNames = CacheConfig.TAG, unless = "#result == null")
     Tag findByTitle(String title);
+
+    @Query("select t.title as title, count(a) as count from Account a join a.tags t group by t.title")
+    List<TagUsage> countAccountUsages();
+
+    @Query("select t.title as title, count(s) as count from Study s join s.tags t group by t.title")
+    List<TagUsage> countStudyUsages();
+
+    // 태그는 추가만 되므로 새 태그를 저장할 때 전체 목록만 비우고 제목 캐시에는 넣어둔다.
+    @Override
+    @Transactional
+    @Caching(evict = @CacheEvict(cacheNames = CacheConfig.TAGS, allEntries = true),
+            put = @CachePut(cacheNames = CacheConfig.TAG, key = "#result.title"))
+    <S extends Tag> S save(S tag);
 }
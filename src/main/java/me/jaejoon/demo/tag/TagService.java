@@ -2,6 +2,7 @@ package me.jaejoon.demo.tag;
 
 import lombok.RequiredArgsConstructor;
 import me.jaejoon.demo.domain.Tag;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,12 +12,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Tag findOrCreateNew(String title){
         Tag byTitle = tagRepository.findByTitle(title);
 
         if(byTitle ==null){
             byTitle = tagRepository.save(Tag.builder().title(title).build());
+            eventPublisher.publishEvent(new TagCreatedEvent(byTitle.getTitle()));
         }
         return byTitle;
     }
@@ -0,0 +1,273 @@
+package me.jaejoon.demo.tag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * 태그 제목을 소문자 key 로 정렬한 배열과 인기도 배열.
+ * 접두어에 해당하는 구간은 이진 탐색으로 찾고, 구간 안의 인기 순 상위 N 개는
+ * 구간 최댓값 위치를 들고 있는 segment tree 로 N 번 꺼내므로 태그 수와 상관없이 O(N log n) 이다.
+ * 새 태그는 정렬 배열에 끼우면 뒤쪽 위치가 모두 밀리므로 작은 pending 배열에 모아 두었다가
+ * 일정 수가 넘으면 한번에 합치고, 조회할 때는 두 곳의 결과를 인기 순으로 합친다.
+ * 동기화는 하지 않으므로 TagSuggestService 가 lock 을 잡고 쓴다.
+ */
+class TagSuggestIndex {
+
+    // pending 이 이 수와 sqrt(size) 중 큰 값을 넘으면 합친다.
+    static final int MIN_PENDING = 64;
+
+    private String[] keys;
+    private String[] titles;
+    private int[] popularity;
+    private int size;
+
+    // tree[i] 는 그 노드 구간에서 인기도가 가장 높은 위치. 잎은 tree[capacity + i] 이다.
+    private int[] tree;
+    private int capacity;
+
+    // 아직 합치지 않은 새 태그. key 순으로 정렬되어 있다.
+    private String[] pendingKeys = new String[MIN_PENDING];
+    private String[] pendingTitles = new String[MIN_PENDING];
+    private int[] pendingPopularity = new int[MIN_PENDING];
+    private int pendingSize;
+
+    TagSuggestIndex(List<String> titles, List<Integer> popularity) {
+        Integer[] order = new Integer[titles.size()];
+        String[] keys = new String[titles.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            keys[i] = key(titles.get(i));
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+
+        this.keys = new String[order.length];
+        this.titles = new String[order.length];
+        this.popularity = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int from = order[i];
+            if (size > 0 && this.keys[size - 1].equals(keys[from])) {
+                continue;
+            }
+            this.keys[size] = keys[from];
+            this.titles[size] = titles.get(from);
+            this.popularity[size] = popularity.get(from);
+            size++;
+        }
+        buildTree();
+    }
+
+    int size() {
+        return size + pendingSize;
+    }
+
+    boolean add(String title, int popularity) {
+        String key = key(title);
+        int position = lowerBound(keys, size, key);
+        if (position < size && keys[position].equals(key)) {
+            return false;
+        }
+        int pending = lowerBound(pendingKeys, pendingSize, key);
+        if (pending < pendingSize && pendingKeys[pending].equals(key)) {
+            return false;
+        }
+        if (pendingSize == pendingKeys.length) {
+            int newLength = pendingKeys.length << 1;
+            pendingKeys = Arrays.copyOf(pendingKeys, newLength);
+            pendingTitles = Arrays.copyOf(pendingTitles, newLength);
+            pendingPopularity = Arrays.copyOf(pendingPopularity, newLength);
+        }
+        System.arraycopy(pendingKeys, pending, pendingKeys, pending + 1, pendingSize - pending);
+        System.arraycopy(pendingTitles, pending, pendingTitles, pending + 1, pendingSize - pending);
+        System.arraycopy(pendingPopularity, pending, pendingPopularity, pending + 1, pendingSize - pending);
+        pendingKeys[pending] = key;
+        pendingTitles[pending] = title;
+        pendingPopularity[pending] = popularity;
+        pendingSize++;
+        // 합치는 비용 O(n) 을 sqrt(n) 번의 추가에 나누어 낸다.
+        if (pendingSize > Math.max(MIN_PENDING, (int) Math.sqrt(size))) {
+            mergePending();
+        }
+        return true;
+    }
+
+    void adjustPopularity(String title, int delta) {
+        String key = key(title);
+        int position = lowerBound(keys, size, key);
+        if (position >= size || !keys[position].equals(key)) {
+            int pending = lowerBound(pendingKeys, pendingSize, key);
+            if (pending < pendingSize && pendingKeys[pending].equals(key)) {
+                pendingPopularity[pending] = Math.max(0, pendingPopularity[pending] + delta);
+            }
+            return;
+        }
+        popularity[position] = Math.max(0, popularity[position] + delta);
+        for (int node = (capacity + position) >> 1; node > 0; node >>= 1) {
+            tree[node] = better(tree[node << 1], tree[(node << 1) | 1]);
+        }
+    }
+
+    List<String> suggest(String prefix, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        String key = key(prefix);
+        String end = key + Character.MAX_VALUE;
+        int[] found = top(lowerBound(keys, size, key), lowerBound(keys, size, end), limit);
+        int[] pending = topPending(lowerBound(pendingKeys, pendingSize, key), lowerBound(pendingKeys, pendingSize, end), limit);
+
+        // 두 결과 모두 인기 순이므로 앞에서부터 합친다.
+        List<String> result = new ArrayList<>(Math.min(limit, found.length + pending.length));
+        int i = 0;
+        int j = 0;
+        while (result.size() < limit && (i < found.length || j < pending.length)) {
+            if (j == pending.length || (i < found.length && comparePending(found[i], pending[j]) <= 0)) {
+                result.add(titles[found[i++]]);
+            } else {
+                result.add(pendingTitles[pending[j++]]);
+            }
+        }
+        return result;
+    }
+
+    // [from, to) 구간에서 인기 순 상위 limit 개의 위치
+    private int[] top(int from, int to, int limit) {
+        int[] result = new int[Math.min(limit, to - from)];
+        if (result.length == 0) {
+            return result;
+        }
+
+        // 구간을 최댓값 위치 기준으로 나누면서 인기도가 높은 순서로 꺼낸다.
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(a[2], b[2]));
+        ranges.add(new int[]{from, to, maxIndex(from, to)});
+        int count = 0;
+        while (count < result.length) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            result[count++] = best;
+            if (range[0] < best) {
+                ranges.add(new int[]{range[0], best, maxIndex(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[]{best + 1, range[1], maxIndex(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    // pending 은 작으므로 구간을 그대로 정렬한다.
+    private int[] topPending(int from, int to, int limit) {
+        Integer[] positions = new Integer[to - from];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = from + i;
+        }
+        Arrays.sort(positions, (a, b) -> {
+            int byPopularity = Integer.compare(pendingPopularity[b], pendingPopularity[a]);
+            return byPopularity != 0 ? byPopularity : Integer.compare(a, b);
+        });
+        int[] result = new int[Math.min(limit, positions.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = positions[i];
+        }
+        return result;
+    }
+
+    private int comparePending(int position, int pending) {
+        int byPopularity = Integer.compare(pendingPopularity[pending], popularity[position]);
+        return byPopularity != 0 ? byPopularity : keys[position].compareTo(pendingKeys[pending]);
+    }
+
+    private void mergePending() {
+        int length = size + pendingSize;
+        String[] mergedKeys = new String[length];
+        String[] mergedTitles = new String[length];
+        int[] mergedPopularity = new int[length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < length; k++) {
+            if (j == pendingSize || (i < size && keys[i].compareTo(pendingKeys[j]) < 0)) {
+                mergedKeys[k] = keys[i];
+                mergedTitles[k] = titles[i];
+                mergedPopularity[k] = popularity[i++];
+            } else {
+                mergedKeys[k] = pendingKeys[j];
+                mergedTitles[k] = pendingTitles[j];
+                mergedPopularity[k] = pendingPopularity[j++];
+            }
+        }
+        keys = mergedKeys;
+        titles = mergedTitles;
+        popularity = mergedPopularity;
+        size = length;
+        Arrays.fill(pendingKeys, 0, pendingSize, null);
+        Arrays.fill(pendingTitles, 0, pendingSize, null);
+        pendingSize = 0;
+        buildTree();
+    }
+
+    private void buildTree() {
+        capacity = 1;
+        while (capacity < Math.max(1, size)) {
+            capacity <<= 1;
+        }
+        tree = new int[capacity << 1];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < size; i++) {
+            tree[capacity + i] = i;
+        }
+        for (int node = capacity - 1; node > 0; node--) {
+            tree[node] = better(tree[node << 1], tree[(node << 1) | 1]);
+        }
+    }
+
+    // [from, to) 구간에서 인기도가 가장 높은 위치
+    private int maxIndex(int from, int to) {
+        int best = -1;
+        for (int left = from + capacity, right = to + capacity; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                best = better(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = better(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return compare(a, b) <= 0 ? a : b;
+    }
+
+    // 인기도가 높은 것이 앞, 같으면 제목 순
+    private int compare(int a, int b) {
+        int byPopularity = Integer.compare(popularity[b], popularity[a]);
+        return byPopularity != 0 ? byPopularity : Integer.compare(a, b);
+    }
+
+    private static int lowerBound(String[] keys, int size, String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String key(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
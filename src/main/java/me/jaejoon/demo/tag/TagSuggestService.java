@@ -0,0 +1,93 @@
+package me.jaejoon.demo.tag;
+
+import lombok.RequiredArgsConstructor;
+import me.jaejoon.demo.domain.Tag;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 태그 자동완성. 처음 쓸 때 태그와 사용 수를 한번 읽어 색인을 만들고
+ * 이후에는 태그 추가/사용 이벤트로만 갱신한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TagSuggestService {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    private final TagRepository tagRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile TagSuggestIndex index;
+
+    public List<String> suggest(String prefix, int limit) {
+        TagSuggestIndex index = getIndex();
+        lock.readLock().lock();
+        try {
+            return index.suggest(prefix, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 아직 색인을 만들지 않았으면 나중에 만들 때 DB 에서 같이 읽으므로 무시한다.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagCreated(TagCreatedEvent event) {
+        update(index -> index.add(event.getTitle(), 0));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagUsageChanged(TagUsageChangedEvent event) {
+        update(index -> index.adjustPopularity(event.getTitle(), event.getDelta()));
+    }
+
+    private void update(Consumer<TagSuggestIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TagSuggestIndex getIndex() {
+        TagSuggestIndex index = this.index;
+        if (index == null) {
+            lock.writeLock().lock();
+            try {
+                if (this.index == null) {
+                    this.index = load();
+                }
+                index = this.index;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return index;
+    }
+
+    private TagSuggestIndex load() {
+        Map<String, Integer> usages = new HashMap<>();
+        tagRepository.countAccountUsages().forEach(usage -> usages.merge(usage.getTitle(), (int) usage.getCount(), Integer::sum));
+        tagRepository.countStudyUsages().forEach(usage -> usages.merge(usage.getTitle(), (int) usage.getCount(), Integer::sum));
+
+        List<String> titles = new ArrayList<>();
+        List<Integer> popularity = new ArrayList<>();
+        for (Tag tag : tagRepository.findAll()) {
+            titles.add(tag.getTitle());
+            popularity.add(usages.getOrDefault(tag.getTitle(), 0));
+        }
+        return new TagSuggestIndex(titles, popularity);
+    }
+}
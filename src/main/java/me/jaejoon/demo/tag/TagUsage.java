@@ -0,0 +1,8 @@
+package me.jaejoon.demo.tag;
+
+public interface TagUsage {
+
+    String getTitle();
+
+    long getCount();
+}
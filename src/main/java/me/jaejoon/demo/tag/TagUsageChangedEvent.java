@@ -0,0 +1,16 @@
+package me.jaejoon.demo.tag;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 계정이나 스터디에 태그를 붙이거나 떼면 발행한다. 자동완성 인기도에 반영한다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TagUsageChangedEvent {
+
+    private final String title;
+
+    private final int delta;
+}
@@ -1,7 +1,7 @@
 package me.jaejoon.demo.validation;
 
 import lombok.RequiredArgsConstructor;
-import me.jaejoon.demo.account.AccountRepository;
+import me.jaejoon.demo.account.AccountUniqueKeys;
 import me.jaejoon.demo.form.NicknameForm;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
@@ -11,7 +11,7 @@ import org.springframework.validation.Validator;
 @RequiredArgsConstructor
 public class NicknameFormValidation implements Validator {
 
-    private final AccountRepository accountRepository;
+    private final AccountUniqueKeys accountUniqueKeys;
 
     @Override
     public boolean supports(Class<?> clazz) {
@@ -21,7 +21,7 @@ public class NicknameFormValidation implements Validator {
     @Override
     public void validate(Object target, Errors errors) {
        NicknameForm nicknameForm = (NicknameForm) target;
-        boolean result = accountRepository.existsByNickname(nicknameForm.getNickname());
+        boolean result = accountUniqueKeys.nicknameExists(nicknameForm.getNickname());
         if(result){
            errors.rejectValue("nickname","nickname.duplicate","이미 존재하는 닉네임입니다.");
        }
@@ -1,7 +1,7 @@
 package me.jaejoon.demo.validation;
 
 import lombok.RequiredArgsConstructor;
-import me.jaejoon.demo.account.AccountRepository;
+import me.jaejoon.demo.account.AccountUniqueKeys;
 import me.jaejoon.demo.form.SignUpForm;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
@@ -11,7 +11,7 @@ import org.springframework.validation.Validator;
 @RequiredArgsConstructor
 public class SignUpFormValidation  implements Validator {
 
-    private final AccountRepository accountRepository;
+    private final AccountUniqueKeys accountUniqueKeys;
 
     @Override
     public boolean supports(Class<?> aClass) {
@@ -21,12 +21,12 @@ public class SignUpFormValidation  implements Validator {
     @Override
     public void validate(Object o, Errors errors) {
         SignUpForm signUpForm = (SignUpForm) o;
-        if(accountRepository.existsByEmail(signUpForm.getEmail())){
+        if(accountUniqueKeys.emailExists(signUpForm.getEmail())){
             errors.rejectValue("email","email.invalid", new Object[]{signUpForm.getEmail()}
             ,"이미 사용중인 이메일입니다");
         }
 
-        if(accountRepository.existsByNickname(signUpForm.getNickname())){
+        if(accountUniqueKeys.nicknameExists(signUpForm.getNickname())){
             errors.rejectValue("nickname","nickname.invalid",new Object[]{signUpForm.getNickname()},
             "이미 사용중인 닉네임 입니다");
         }
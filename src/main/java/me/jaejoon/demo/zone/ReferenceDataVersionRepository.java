@@ -0,0 +1,7 @@
+package me.jaejoon.demo.zone;
+
+import me.jaejoon.demo.domain.ReferenceDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReferenceDataVersionRepository extends JpaRepository<ReferenceDataVersion, String> {
+}
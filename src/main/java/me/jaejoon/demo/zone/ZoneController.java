@@ -0,0 +1,23 @@
+package me.jaejoon.demo.zone;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class ZoneController {
+
+    private final ZoneSearchService zoneSearchService;
+
+    @GetMapping("/zones/search")
+    @ResponseBody
+    public List<String> search(@RequestParam String q,
+                               @RequestParam(defaultValue = "" + ZoneSearchService.DEFAULT_LIMIT) int limit) {
+        return zoneSearchService.search(q, limit);
+    }
+}
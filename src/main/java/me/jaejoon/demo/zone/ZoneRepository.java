@@ -1,9 +1,12 @@
 package me.jaejoon.demo.zone;
 
+import me.jaejoon.demo.config.CacheConfig;
 import me.jaejoon.demo.domain.Zone;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 
 public interface ZoneRepository extends JpaRepository<Zone,Long> {
+    @Cacheable(cacheNames = CacheConfig.ZONE, unless = "#result == null")
     Zone findByCityAndProvince(String cityName, String provinceName);
 }
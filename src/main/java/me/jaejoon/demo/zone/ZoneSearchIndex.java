@@ -0,0 +1,131 @@
+package me.jaejoon.demo.zone;
+
+import me.jaejoon.demo.domain.Zone;
+
+import java.util.*;
+
+/**
+ * 지역 이름 검색 색인. 한글 이름(localNameOfCity)은 첫 글자의 초성, 영문 이름(city)은 첫 글자로 나눠 두고
+ * 검색어 첫 글자에 해당하는 묶음만 앞에서부터 비교한다.
+ * 한글 검색어는 완성된 글자, 초성(ㅅㅇ → 서울), 입력 중인 마지막 글자(부사 → 부산)를 모두 받는다.
+ */
+class ZoneSearchIndex {
+
+    private static final char SYLLABLE_BEGIN = '가';
+    private static final char SYLLABLE_END = '힣';
+    private static final int MEDIAL_COUNT = 21;
+    private static final int FINAL_COUNT = 28;
+    private static final String INITIALS = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    private static final String FINALS = " ㄱㄲㄳㄴㄵㄶㄷㄹㄺㄻㄼㄽㄾㄿㅀㅁㅂㅄㅅㅆㅇㅈㅊㅋㅌㅍㅎ";
+
+    private final Map<Character, List<Entry>> byInitial = new HashMap<>();
+    private final Map<Character, List<Entry>> byLetter = new HashMap<>();
+
+    ZoneSearchIndex(Collection<Zone> zones) {
+        zones.stream()
+                .map(Entry::new)
+                .sorted(Comparator.comparing(entry -> entry.localName))
+                .forEach(entry -> {
+                    if (!entry.localName.isEmpty()) {
+                        byInitial.computeIfAbsent(initialOf(entry.localName.charAt(0)), key -> new ArrayList<>()).add(entry);
+                    }
+                    if (!entry.city.isEmpty()) {
+                        byLetter.computeIfAbsent(entry.city.charAt(0), key -> new ArrayList<>()).add(entry);
+                    }
+                });
+    }
+
+    List<String> search(String query, int limit) {
+        String normalized = query.replaceAll("\\s", "").toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        char first = normalized.charAt(0);
+        if (isSyllable(first) || INITIALS.indexOf(first) >= 0) {
+            for (Entry entry : byInitial.getOrDefault(initialOf(first), List.of())) {
+                if (matchesHangul(normalized, entry.localName)) {
+                    result.add(entry.name);
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        } else {
+            for (Entry entry : byLetter.getOrDefault(first, List.of())) {
+                if (entry.city.startsWith(normalized)) {
+                    result.add(entry.name);
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    static boolean matchesHangul(String query, String target) {
+        if (query.length() > target.length()) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            char q = query.charAt(i);
+            char t = target.charAt(i);
+            if (q == t) {
+                continue;
+            }
+            if (INITIALS.indexOf(q) >= 0) {
+                if (isSyllable(t) && initialOf(t) == q) {
+                    continue;
+                }
+                return false;
+            }
+            // 마지막 글자는 입력 중이라 받침이 아직 없거나(부사 → 부산) 다음 글자의 초성이 받침으로 붙어 있을 수 있다(성 → 서울).
+            boolean last = i == query.length() - 1;
+            if (last && isSyllable(q) && isSyllable(t)) {
+                if (finalOf(q) == 0 && withoutFinal(t) == q) {
+                    continue;
+                }
+                char carried = FINALS.charAt(finalOf(q));
+                if (withoutFinal(q) == t && INITIALS.indexOf(carried) >= 0
+                        && i + 1 < target.length() && initialOf(target.charAt(i + 1)) == carried) {
+                    continue;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    static char initialOf(char c) {
+        if (!isSyllable(c)) {
+            return c;
+        }
+        return INITIALS.charAt((c - SYLLABLE_BEGIN) / (MEDIAL_COUNT * FINAL_COUNT));
+    }
+
+    private static int finalOf(char c) {
+        return (c - SYLLABLE_BEGIN) % FINAL_COUNT;
+    }
+
+    private static char withoutFinal(char c) {
+        return (char) (c - finalOf(c));
+    }
+
+    private static boolean isSyllable(char c) {
+        return c >= SYLLABLE_BEGIN && c <= SYLLABLE_END;
+    }
+
+    private static class Entry {
+        private final String name;
+        private final String localName;
+        private final String city;
+
+        private Entry(Zone zone) {
+            this.name = zone.toString();
+            this.localName = zone.getLocalNameOfCity().replaceAll("\\s", "");
+            this.city = zone.getCity().replaceAll("\\s", "").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package me.jaejoon.demo.zone;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 지역 검색. 지역은 시작할 때 저장한 뒤 바뀌지 않으므로 처음 검색할 때 한번 색인을 만든다.
+ * 지역 파일을 넣기 전에 만든 색인은 넣은 뒤에 버린다.
+ * 색인을 만드는 것과 버리는 것은 같은 lock 을 잡으므로, 넣기 전에 읽은 목록으로 만든 색인이 버린 뒤에 다시 들어오지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class ZoneSearchService {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    private final ZoneRepository zoneRepository;
+
+    private volatile ZoneSearchIndex index;
+
+    public List<String> search(String query, int limit) {
+        return getIndex().search(query, Math.min(limit, MAX_LIMIT));
+    }
+
+    @EventListener
+    public synchronized void onZonesLoaded(ZonesLoadedEvent event) {
+        index = null;
+    }
+
+    private ZoneSearchIndex getIndex() {
+        ZoneSearchIndex index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                if (this.index == null) {
+                    this.index = new ZoneSearchIndex(zoneRepository.findAll());
+                }
+                index = this.index;
+            }
+        }
+        return index;
+    }
+}
@@ -1,37 +1,156 @@
 package me.jaejoon.demo.zone;
 
 import lombok.RequiredArgsConstructor;
-import me.jaejoon.demo.domain.Zone;
+import lombok.extern.slf4j.Slf4j;
+import me.jaejoon.demo.config.CacheConfig;
+import me.jaejoon.demo.domain.ReferenceDataVersion;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 지역 파일(zones_kr.csv)을 DB 에 넣는다.
+ * 애플리케이션이 뜬 뒤 별도 스레드에서 classpath 의 파일을 한 줄씩 읽어 JDBC batch 로 넣으므로
+ * 시작 시간은 파일 크기와 상관이 없고 jar 로 실행해도 읽을 수 있다.
+ * 마지막으로 넣은 파일의 checksum 을 저장해 두고 같은 파일이면 다시 넣지 않는다.
+ */
+@Slf4j
 @Service
-@Transactional
 @RequiredArgsConstructor
 public class ZoneService {
 
-    private final ZoneRepository zoneRepository;
+    static final String ZONES_CSV = "zones_kr.csv";
+    static final int BATCH_SIZE = 500;
 
-    @PostConstruct
-    private void init() throws IOException {
-        if(zoneRepository.count() == 0){
-            Resource resource = new ClassPathResource("zones_kr.csv");
+    // 이미 있는 지역(city, province)은 건너뛰므로 파일이 바뀌어도 새 지역만 들어간다.
+    private static final String INSERT_ZONE = "insert into zone (id, city, local_name_of_city, province) " +
+            "select nextval('zone_seq'), ?, ?, ? " +
+            "where not exists (select 1 from zone where city = ? and province = ?)";
 
-            List<Zone> zoneList = Files.readAllLines(resource.getFile().toPath(), StandardCharsets.UTF_8)
-                    .stream().map(s -> {
-                        String[] split = s.split(",");
-                        return Zone.builder().city(split[0]).localNameOfCity(split[1]).province(split[2]).build();
-                    }).collect(Collectors.toList());
-            zoneRepository.saveAll(zoneList);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceDataVersionRepository referenceDataVersionRepository;
+    private final TaskExecutor taskExecutor;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CompletableFuture<Integer> loaded = new CompletableFuture<>();
+
+    // 다른 ready 리스너보다 먼저 적재를 시작시킨다.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void loadOnReady() {
+        taskExecutor.execute(() -> {
+            try {
+                loaded.complete(load(new ClassPathResource(ZONES_CSV)));
+            } catch (RuntimeException e) {
+                log.error("지역 파일을 넣지 못했습니다.", e);
+                loaded.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 시작할 때 넣은 지역 수. 이미 같은 파일을 넣었으면 0 이다.
+     */
+    public CompletableFuture<Integer> getLoaded() {
+        return loaded;
+    }
+
+    int load(Resource resource) {
+        String checksum = checksum(resource);
+        Integer inserted = transactionTemplate.execute(status -> {
+            Optional<ReferenceDataVersion> version = referenceDataVersionRepository.findById(resource.getFilename());
+            if (version.isPresent() && version.get().getChecksum().equals(checksum)) {
+                return 0;
+            }
+            int count = insertZones(resource);
+            referenceDataVersionRepository.save(new ReferenceDataVersion(resource.getFilename(), checksum, LocalDateTime.now()));
+            return count;
+        });
+        if (inserted > 0) {
+            cacheManager.getCache(CacheConfig.ZONE).clear();
+            eventPublisher.publishEvent(new ZonesLoadedEvent());
+            log.info("{} 에서 지역 {} 개를 넣었습니다.", resource.getFilename(), inserted);
+        }
+        return inserted;
+    }
+
+    private int insertZones(Resource resource) {
+        int inserted = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] split = line.split(",");
+                batch.add(new Object[]{split[0], split[1], split[2], split[0], split[2]});
+                if (batch.size() == BATCH_SIZE) {
+                    inserted += insertBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                inserted += insertBatch(batch);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return inserted;
+    }
+
+    private int insertBatch(List<Object[]> batch) {
+        int inserted = 0;
+        for (int count : jdbcTemplate.batchUpdate(INSERT_ZONE, batch)) {
+            // 드라이버가 건수를 알려주지 않으면 넣은 것으로 센다.
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private static String checksum(Resource resource) {
+        try (DigestInputStream in = new DigestInputStream(resource.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // 읽는 동안 digest 가 갱신된다.
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : in.getMessageDigest().digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
@@ -0,0 +1,8 @@
+package me.jaejoon.demo.zone;
+
+/**
+ * 시작할 때 지역 파일을 읽어 새 지역을 넣었을 때 발행한다.
+ * 지역 목록을 들고 있는 색인은 이 이벤트를 받으면 다시 만든다.
+ */
+public class ZonesLoadedEvent {
+}
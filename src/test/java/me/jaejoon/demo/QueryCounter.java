@@ -0,0 +1,90 @@
+package me.jaejoon.demo;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테스트에서 실행된 SQL 문장 수와 읽어온 row 수를 센다.
+ * DataSource 를 감싸서 Statement 실행과 ResultSet.next() 를 가로챈다.
+ */
+@Component
+public class QueryCounter implements BeanPostProcessor {
+
+    private final AtomicLong statementCount = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+
+    public void reset() {
+        statementCount.set(0);
+        rowCount.set(0);
+    }
+
+    public long getStatementCount() {
+        return statementCount.get();
+    }
+
+    public long getRowCount() {
+        return rowCount.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return new DelegatingDataSource((DataSource) bean) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(super.getConnection(), Connection.class);
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return proxy(super.getConnection(username, password), Connection.class);
+                }
+            };
+        }
+        return bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target, Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                statementCount.incrementAndGet();
+            }
+            if (target instanceof ResultSet && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rowCount.incrementAndGet();
+            }
+            return wrap(result, method.getReturnType());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object wrap(Object result, Class<?> returnType) {
+        if (result instanceof Statement && Statement.class.isAssignableFrom(returnType)) {
+            return proxy(result, (Class<Object>) returnType);
+        }
+        if (result instanceof ResultSet && returnType == ResultSet.class) {
+            return proxy((ResultSet) result, ResultSet.class);
+        }
+        return result;
+    }
+
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
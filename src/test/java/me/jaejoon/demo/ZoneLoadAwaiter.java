@@ -0,0 +1,29 @@
+package me.jaejoon.demo;
+
+import me.jaejoon.demo.zone.ZoneService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 지역은 애플리케이션이 뜬 뒤 따로 넣으므로 테스트는 다 들어갈 때까지 기다렸다가 시작한다.
+ */
+@Component
+public class ZoneLoadAwaiter {
+
+    private final ZoneService zoneService;
+
+    public ZoneLoadAwaiter(ZoneService zoneService) {
+        this.zoneService = zoneService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void awaitZones() throws Exception {
+        zoneService.getLoaded().get(30, TimeUnit.SECONDS);
+    }
+}
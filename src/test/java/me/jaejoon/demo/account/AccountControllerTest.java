@@ -1,21 +1,27 @@
 package me.jaejoon.demo.account;
 
+import me.jaejoon.demo.QueryCounter;
 import me.jaejoon.demo.domain.Account;
-import me.jaejoon.demo.mail.EmailMessage;
-import me.jaejoon.demo.mail.EmailService;
+import me.jaejoon.demo.domain.EmailTokenPurpose;
+import me.jaejoon.demo.domain.OutboxEmail;
+import me.jaejoon.demo.domain.OutboxStatus;
+import me.jaejoon.demo.mail.OutboxEmailRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.BDDMockito.then;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -34,8 +40,35 @@ class AccountControllerTest {
     @Autowired
     private AccountRepository repository;
 
-    @MockBean
-    EmailService emailService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private EmailTokenService emailTokenService;
+
+    @Test
+    @DisplayName("로그인하면 strength 가 다른 해시를 지금 strength 로 다시 저장한다")
+    void login_rehash() throws Exception {
+        repository.save(Account.builder()
+                .email("test@email.com")
+                .nickname("kjj")
+                .password("{bcrypt}" + new BCryptPasswordEncoder(4).encode("123456789"))
+                .build());
+
+        mockMvc.perform(formLogin().user("test@email.com").password("123456789"))
+                .andExpect(authenticated().withUsername("kjj"));
+
+        String rehashed = repository.findCredentials("kjj").getPassword();
+        assertThat(rehashed).doesNotStartWith("{bcrypt}$2a$04$");
+        assertThat(passwordEncoder.upgradeEncoding(rehashed)).isFalse();
+        assertThat(passwordEncoder.matches("123456789", rehashed)).isTrue();
+    }
 
     @Test
     @DisplayName("이메일 체크 오류")
@@ -56,11 +89,11 @@ class AccountControllerTest {
                 .nickname("kjj")
                 .password("asd")
                 .build();
-        repository.save(account);
-        account.generateEmailCheckToken();
+        repository.saveAndFlush(account);
+        String token = emailTokenService.issue(account, EmailTokenPurpose.CHECK_EMAIL);
 
         mockMvc.perform(get("/check-email-token")
-                .param("token",account.getEmailCheckToken())
+                .param("token",token)
                 .param("email",account.getEmail()))
                 .andExpect(status().isOk())
                 .andExpect(model().attributeDoesNotExist("error"))
@@ -69,6 +102,12 @@ class AccountControllerTest {
                 .andExpect(view().name("account/checked-email"))
                 .andExpect(authenticated());
 
+        // 토큰은 한번만 쓸 수 있다.
+        mockMvc.perform(get("/check-email-token")
+                .param("token",token)
+                .param("email",account.getEmail()))
+                .andExpect(model().attributeExists("error"));
+
     }
 
     @Test
@@ -106,9 +145,66 @@ class AccountControllerTest {
                 .andExpect(authenticated());
 
         Account account = repository.findByEmail("email@email.com");
-        assertThat(account.getEmailCheckToken()).isNotNull();
         assertThat(account).isNotNull().as(account.getPassword()).isNotEqualTo("123456789");
 
-        then(emailService).should().sendEmail(any(EmailMessage.class));
+        // 메일은 바로 보내지 않고 같은 트랜잭션에서 outbox 에 넣는다.
+        assertThat(outboxEmailRepository.findAll())
+                .filteredOn(email -> email.getRecipient().equals("email@email.com"))
+                .allSatisfy(email -> assertThat(email.getMessage()).contains("/check-email-token?token="))
+                .extracting(OutboxEmail::getStatus)
+                .containsExactly(OutboxStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("가입하고 1시간 안에는 인증 메일을 다시 보내지 않고 이메일을 보여준다")
+    void resendEmail_afterSignUp() throws Exception {
+        mockMvc.perform(post("/sign-up")
+                .param("nickname","resend")
+                .param("password","123456789")
+                .param("email","resend@email.com")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        Account account = repository.findByEmail("resend@email.com");
+
+        mockMvc.perform(get("/resend-email")
+                .with(user(new UserAccount(account))))
+                .andExpect(status().isOk())
+                .andExpect(view().name("account/check-email"))
+                .andExpect(model().attributeExists("error"))
+                .andExpect(model().attribute("email", "resend@email.com"))
+                .andExpect(content().string(containsString("resend@email.com")));
+    }
+
+    @Test
+    @DisplayName("이메일 로그인을 1시간 안에 다시 요청하면 DB 를 읽지 않고 거절한다")
+    void emailLogin_rateLimited() throws Exception {
+        repository.save(Account.builder()
+                .email("limit@email.com")
+                .nickname("limit")
+                .password("123456789")
+                .build());
+
+        mockMvc.perform(post("/email-login")
+                .param("email","limit@email.com")
+                .with(remoteAddr("10.0.0.1"))
+                .with(csrf()))
+                .andExpect(redirectedUrl("/check-login-email"));
+
+        queryCounter.reset();
+        mockMvc.perform(post("/email-login")
+                .param("email","LIMIT@email.com")
+                .with(remoteAddr("10.0.0.2"))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeExists("error"))
+                .andExpect(view().name("account/email-login"));
+        assertThat(queryCounter.getStatementCount()).isZero();
+    }
+
+    private RequestPostProcessor remoteAddr(String ip) {
+        return request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package me.jaejoon.demo.account;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.jaejoon.demo.QueryCounter;
+import me.jaejoon.demo.form.SignUpForm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋된 뒤에 세므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+// 주기적으로 맞추는 작업이 테스트 중에 끼어들지 않도록 직접 부른다.
+@SpringBootTest(properties = "app.account-count.reconcile-delay=PT1H")
+class AccountCounterTest {
+
+    @Autowired
+    AccountCounter accountCounter;
+
+    @Autowired
+    AccountService accountService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from email_token");
+        jdbcTemplate.update("delete from outbox_email");
+        accountRepository.deleteAll();
+        accountCounter.reconcile();
+    }
+
+    @Test
+    @DisplayName("가입이 커밋되면 DB 를 세지 않고 계정 수가 늘어난다")
+    void signUp_counted() {
+        long before = accountCounter.reconcile();
+
+        accountService.processNewAccount(signUpForm("counter1"));
+        transactionTemplate.executeWithoutResult(status -> {
+            accountService.processNewAccount(signUpForm("counter2"));
+            status.setRollbackOnly();
+        });
+
+        queryCounter.reset();
+        assertThat(accountCounter.get()).isEqualTo(before + 1);
+        assertThat(queryCounter.getStatementCount()).isZero();
+        assertThat(meterRegistry.get("account.count").gauge().value()).isEqualTo(before + 1);
+    }
+
+    @Test
+    @DisplayName("DB 에서 직접 바뀐 계정 수는 다시 맞출 때 반영된다")
+    void reconcile() {
+        accountService.processNewAccount(signUpForm("counter1"));
+        long counted = accountCounter.get();
+
+        jdbcTemplate.update("delete from email_token");
+        jdbcTemplate.update("delete from outbox_email");
+        accountRepository.deleteAll();
+
+        assertThat(accountCounter.get()).isEqualTo(counted);
+        assertThat(accountCounter.reconcile()).isEqualTo(counted - 1);
+        assertThat(accountCounter.get()).isEqualTo(accountRepository.count());
+    }
+
+    private SignUpForm signUpForm(String nickname) {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname(nickname);
+        signUpForm.setEmail(nickname + "@email.com");
+        signUpForm.setPassword("123456789");
+        return signUpForm;
+    }
+}
@@ -0,0 +1,154 @@
+package me.jaejoon.demo.account;
+
+import me.jaejoon.demo.QueryCounter;
+import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.form.NicknameForm;
+import me.jaejoon.demo.form.PasswordForm;
+import me.jaejoon.demo.form.SignUpForm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 로그인 정보 캐시는 커밋된 뒤에만 채워지므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+class AccountServiceTest {
+
+    @Autowired
+    AccountService accountService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    Account account;
+
+    @BeforeEach
+    void beforeEach() {
+        SignUpForm signUpForm = new SignUpForm();
+        signUpForm.setNickname("jaejoon");
+        signUpForm.setEmail("jaejoon@email.com");
+        signUpForm.setPassword("123456789");
+        account = accountService.processNewAccount(signUpForm);
+    }
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("닉네임이나 이메일로 한번에 조회하고, 다시 로그인하면 DB 를 조회하지 않는다")
+    void loadUserByUsername_cached() {
+        queryCounter.reset();
+        UserDetails byNickname = accountService.loadUserByUsername("jaejoon");
+        UserDetails byEmail = accountService.loadUserByUsername("jaejoon@email.com");
+        assertThat(queryCounter.getStatementCount()).isEqualTo(2);
+        assertThat(((UserAccount) byNickname).getId()).isEqualTo(account.getId());
+        assertThat(((UserAccount) byEmail).getId()).isEqualTo(account.getId());
+
+        queryCounter.reset();
+        UserDetails cached = accountService.loadUserByUsername("jaejoon@email.com");
+
+        assertThat(queryCounter.getStatementCount()).isZero();
+        assertThat(cached.getUsername()).isEqualTo("jaejoon");
+        assertThat(passwordEncoder.matches("123456789", cached.getPassword())).isTrue();
+        assertThatThrownBy(() -> accountService.loadUserByUsername("nobody"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("비밀번호를 바꾸면 캐시를 지운다")
+    void updatePassword_evict() {
+        accountService.loadUserByUsername("jaejoon");
+        accountService.loadUserByUsername("jaejoon@email.com");
+
+        PasswordForm form = new PasswordForm();
+        form.setNewPassword("987654321");
+        form.setNewPasswordConfirm("987654321");
+        accountService.updatePassword(account, form);
+
+        assertThat(passwordEncoder.matches("987654321", accountService.loadUserByUsername("jaejoon").getPassword())).isTrue();
+        assertThat(passwordEncoder.matches("987654321", accountService.loadUserByUsername("jaejoon@email.com").getPassword())).isTrue();
+    }
+
+    @Test
+    @DisplayName("로그인하면서 다시 해시하면 닉네임과 이메일 캐시를 모두 지운다")
+    void updatePassword_rehash_evict() {
+        accountService.loadUserByUsername("jaejoon");
+        UserDetails byEmail = accountService.loadUserByUsername("jaejoon@email.com");
+
+        String rehashed = passwordEncoder.encode("123456789");
+        accountService.updatePassword(byEmail, rehashed);
+
+        assertThat(accountService.loadUserByUsername("jaejoon").getPassword()).isEqualTo(rehashed);
+        assertThat(accountService.loadUserByUsername("jaejoon@email.com").getPassword()).isEqualTo(rehashed);
+    }
+
+    @Test
+    @DisplayName("닉네임을 바꾸면 이전 닉네임으로는 로그인할 수 없다")
+    void updateNickName_evict() {
+        accountService.loadUserByUsername("jaejoon");
+        accountService.loadUserByUsername("jaejoon@email.com");
+
+        NicknameForm form = new NicknameForm();
+        form.setNickname("newjaejoon");
+        accountService.updateNickName(account, form);
+
+        assertThatThrownBy(() -> accountService.loadUserByUsername("jaejoon"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(accountService.loadUserByUsername("jaejoon@email.com").getUsername()).isEqualTo("newjaejoon");
+    }
+
+    @Test
+    @DisplayName("세션에 넣는 로그인 정보는 계정 id, 닉네임, 이메일만 담는다")
+    void login_sessionSize() throws Exception {
+        accountService.login(account);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(SecurityContextHolder.getContext());
+        }
+        // 계정의 태그/지역/프로필과 상관없이 2KB 를 넘지 않는다.
+        assertThat(bytes.size()).isLessThan(2048);
+
+        SecurityContext restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (SecurityContext) in.readObject();
+        }
+        UserAccount principal = (UserAccount) restored.getAuthentication().getPrincipal();
+        assertThat(principal.getId()).isEqualTo(account.getId());
+        assertThat(principal.getUsername()).isEqualTo("jaejoon");
+        assertThat(principal.getEmail()).isEqualTo("jaejoon@email.com");
+        assertThat(principal.getPassword()).isNull();
+        assertThat(restored.getAuthentication().getCredentials()).isNull();
+        // 대부분 클래스 정보이고 계정 정보나 태그/지역 수와 상관없이 일정하다.
+        assertThat(bytes.size()).isLessThan(2048);
+    }
+}
@@ -0,0 +1,157 @@
+package me.jaejoon.demo.account;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.jaejoon.demo.QueryCounter;
+import me.jaejoon.demo.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// 커밋과 롤백을 직접 확인하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+// 주기적으로 다시 만드는 작업이 테스트 중에 끼어들지 않도록 직접 부른다.
+@SpringBootTest(properties = "app.unique-filter.rebuild-delay=PT1H")
+@AutoConfigureMockMvc
+class AccountUniqueKeysTest {
+
+    static final int CHECKS = 10_000;
+
+    @Autowired
+    AccountUniqueKeys accountUniqueKeys;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @AfterEach
+    void afterEach() {
+        accountRepository.deleteAll();
+        accountUniqueKeys.rebuild();
+    }
+
+    @Test
+    @DisplayName("없는 값은 DB 를 보지 않고, 있는 값은 DB 로 확인한다")
+    void exists() {
+        saveAccount("saved");
+        accountUniqueKeys.rebuild();
+
+        queryCounter.reset();
+        assertThat(accountUniqueKeys.emailExists("free@email.com")).isFalse();
+        assertThat(accountUniqueKeys.nicknameExists("free")).isFalse();
+        assertThat(queryCounter.getStatementCount()).isZero();
+
+        assertThat(accountUniqueKeys.emailExists("saved@email.com")).isTrue();
+        assertThat(accountUniqueKeys.nicknameExists("saved")).isTrue();
+        assertThat(queryCounter.getStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("다시 만들기 전에도 새 계정은 바로 반영하고 롤백된 것은 DB 로 확인한다")
+    void add() {
+        accountUniqueKeys.rebuild();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = saveAccount("committed");
+            accountUniqueKeys.addEmail(account.getEmail());
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = saveAccount("rolledBack");
+            accountUniqueKeys.addEmail(account.getEmail());
+            status.setRollbackOnly();
+        });
+
+        assertThat(accountUniqueKeys.emailExists("committed@email.com")).isTrue();
+        queryCounter.reset();
+        assertThat(accountUniqueKeys.emailExists("rolledBack@email.com")).isFalse();
+        assertThat(queryCounter.getStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("입력할 때마다 확인해도 DB 를 보는 것은 false positive 비율만큼이다")
+    void falsePositiveRate() {
+        for (int i = 0; i < 100; i++) {
+            saveAccount("user" + i);
+        }
+        accountUniqueKeys.rebuild();
+        double probable = checks("probable");
+        double falsePositive = meterRegistry.get("unique.filter.false.positive")
+                .tag("filter", "account.email").counter().count();
+
+        queryCounter.reset();
+        for (int i = 0; i < CHECKS; i++) {
+            accountUniqueKeys.emailExists("typing" + i + "@email.com");
+        }
+
+        double rate = (meterRegistry.get("unique.filter.false.positive").tag("filter", "account.email").counter().count()
+                - falsePositive) / CHECKS;
+        assertThat(queryCounter.getStatementCount()).isEqualTo((int) (checks("probable") - probable));
+        assertThat(rate).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("filter 에 없는 이메일이 먼저 저장돼 있으면 가입할 때 입력 오류로 돌려준다")
+    void signUp_takenAfterRebuild() throws Exception {
+        accountUniqueKeys.rebuild();
+        // 다른 서버에서 가입한 것처럼 filter 를 거치지 않고 저장한다.
+        saveAccount("other");
+
+        mockMvc.perform(post("/sign-up")
+                .param("nickname", "jaejoon")
+                .param("email", "other@email.com")
+                .param("password", "123456789")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("account/sign-up"))
+                .andExpect(model().attributeHasFieldErrors("signUpForm", "email"));
+
+        assertThat(accountRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("filter 에 없는 닉네임이 먼저 저장돼 있으면 닉네임 변경을 입력 오류로 돌려준다")
+    void updateNickname_takenAfterRebuild() throws Exception {
+        Account account = saveAccount("jaejoon");
+        accountUniqueKeys.rebuild();
+        saveAccount("other");
+
+        mockMvc.perform(post("/settings/account")
+                .param("nickname", "other")
+                .with(user(new UserAccount(account)))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeHasFieldErrors("nicknameForm", "nickname"));
+
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getNickname()).isEqualTo("jaejoon");
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("unique.filter.checks").tag("filter", "account.email").tag("result", result)
+                .counter().count();
+    }
+
+    private Account saveAccount(String nickname) {
+        return accountRepository.save(Account.builder()
+                .nickname(nickname).email(nickname + "@email.com").password("123456789").build());
+    }
+}
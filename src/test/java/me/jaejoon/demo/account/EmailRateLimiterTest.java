@@ -0,0 +1,31 @@
+package me.jaejoon.demo.account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.jaejoon.demo.config.AppProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailRateLimiterTest {
+
+    AppProperties properties = new AppProperties();
+
+    EmailRateLimiter emailRateLimiter = new EmailRateLimiter(properties, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("막힌 주소로 계속 요청해도 같은 IP 의 다른 주소는 보낼 수 있다")
+    void tryAcquire_recipientRejected_keepsIpBudget() {
+        int ipCapacity = properties.getRateLimit().getIp().getCapacity();
+        assertThat(emailRateLimiter.tryAcquire("blocked@email.com", "10.0.0.1")).isTrue();
+
+        for (int i = 0; i < ipCapacity * 2; i++) {
+            assertThat(emailRateLimiter.tryAcquire("blocked@email.com", "10.0.0.1")).isFalse();
+        }
+
+        for (int i = 1; i < ipCapacity; i++) {
+            assertThat(emailRateLimiter.tryAcquire("user" + i + "@email.com", "10.0.0.1")).isTrue();
+        }
+        assertThat(emailRateLimiter.tryAcquire("last@email.com", "10.0.0.1")).isFalse();
+    }
+}
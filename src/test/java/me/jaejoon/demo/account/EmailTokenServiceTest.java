@@ -0,0 +1,130 @@
+package me.jaejoon.demo.account;
+
+import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.domain.EmailTokenPurpose;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 여러 스레드가 각자 커밋해야 하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+// 주기적으로 지우는 작업이 테스트 중에 끼어들지 않도록 직접 부른다.
+@SpringBootTest(properties = "app.email-token.sweep-delay=PT1H")
+class EmailTokenServiceTest {
+
+    @Autowired
+    EmailTokenService emailTokenService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from email_token");
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("토큰은 hash 로만 저장하고, 목적과 이메일이 맞을 때 한번만 쓸 수 있다")
+    void consume_once() {
+        Account account = saveAccount("token");
+        String token = emailTokenService.issue(account, EmailTokenPurpose.LOGIN);
+
+        assertThat(jdbcTemplate.queryForObject("select token_hash from email_token", String.class))
+                .isEqualTo(EmailTokenService.hash(token))
+                .isNotEqualTo(token);
+        assertThat(emailTokenService.consume(token, account.getEmail(), EmailTokenPurpose.CHECK_EMAIL)).isEmpty();
+        assertThat(emailTokenService.consume(token + "x", account.getEmail(), EmailTokenPurpose.LOGIN)).isEmpty();
+        assertThat(emailTokenService.consume(token, account.getEmail(), EmailTokenPurpose.LOGIN))
+                .map(Account::getId).contains(account.getId());
+        assertThat(emailTokenService.consume(token, account.getEmail(), EmailTokenPurpose.LOGIN)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("이메일이 틀린 링크로는 토큰을 쓰지 못하고, 토큰은 맞는 이메일로 그대로 쓸 수 있다")
+    void consume_wrongEmail_keepsToken() {
+        Account account = saveAccount("token");
+        Account other = saveAccount("other");
+        String token = emailTokenService.issue(account, EmailTokenPurpose.CHECK_EMAIL);
+
+        assertThat(emailTokenService.consume(token, other.getEmail(), EmailTokenPurpose.CHECK_EMAIL)).isEmpty();
+        assertThat(emailTokenService.consume(token, "nobody@email.com", EmailTokenPurpose.CHECK_EMAIL)).isEmpty();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_token", Integer.class)).isEqualTo(1);
+        assertThat(emailTokenService.consume(token, account.getEmail(), EmailTokenPurpose.CHECK_EMAIL))
+                .map(Account::getId).contains(account.getId());
+    }
+
+    @Test
+    @DisplayName("같은 토큰이 동시에 들어와도 하나만 성공한다")
+    void consume_concurrently() throws Exception {
+        Account account = saveAccount("token");
+        String token = emailTokenService.issue(account, EmailTokenPurpose.LOGIN);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Account>>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return emailTokenService.consume(token, account.getEmail(), EmailTokenPurpose.LOGIN);
+            }));
+        }
+        start.countDown();
+        int success = 0;
+        for (Future<Optional<Account>> future : futures) {
+            if (future.get(30, TimeUnit.SECONDS).isPresent()) {
+                success++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(success).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("만료된 토큰은 쓸 수 없고 나눠서 지운다")
+    void sweep_expired() {
+        Account account = saveAccount("token");
+        String valid = emailTokenService.issue(account, EmailTokenPurpose.CHECK_EMAIL);
+        String expired = emailTokenService.issue(account, EmailTokenPurpose.CHECK_EMAIL);
+        int count = EmailTokenService.CHUNK_SIZE * 2 + 10;
+        List<Object[]> args = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            args.add(new Object[]{"expired" + i, account.getId(), Timestamp.valueOf(LocalDateTime.now().minusMinutes(1))});
+        }
+        jdbcTemplate.batchUpdate("insert into email_token (token_hash, account_id, purpose, expires_at) " +
+                "values (?, ?, 'CHECK_EMAIL', ?)", args);
+        jdbcTemplate.update("update email_token set expires_at = ? where token_hash = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), EmailTokenService.hash(expired));
+
+        assertThat(emailTokenService.consume(expired, account.getEmail(), EmailTokenPurpose.CHECK_EMAIL)).isEmpty();
+        assertThat(emailTokenService.sweep()).isEqualTo(count + 1);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_token", Integer.class)).isEqualTo(1);
+        assertThat(emailTokenService.consume(valid, account.getEmail(), EmailTokenPurpose.CHECK_EMAIL)).isPresent();
+    }
+
+    private Account saveAccount(String nickname) {
+        return accountRepository.save(Account.builder()
+                .nickname(nickname).email(nickname + "@email.com").password("123456789").build());
+    }
+}
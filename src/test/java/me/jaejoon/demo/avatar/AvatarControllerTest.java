@@ -0,0 +1,128 @@
+package me.jaejoon.demo.avatar;
+
+import me.jaejoon.demo.WithAccount;
+import me.jaejoon.demo.account.AccountRepository;
+import me.jaejoon.demo.domain.Account;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class AvatarControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    AvatarService avatarService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Test
+    @DisplayName("아바타 이미지 조회 - immutable 캐시")
+    void viewAvatar() throws Exception {
+        String hash = avatarService.store(createDataUrl());
+
+        mockMvc.perform(get("/avatars/" + hash))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/avatars/" + hash + "/thumbnail"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG));
+    }
+
+    @Test
+    @DisplayName("아바타 이미지 조회 - 304")
+    void viewAvatar_not_modified() throws Exception {
+        String hash = avatarService.store(createDataUrl());
+
+        mockMvc.perform(get("/avatars/" + hash)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("아바타 이미지 조회 - 없는 이미지")
+    void viewAvatar_not_found() throws Exception {
+        mockMvc.perform(get("/avatars/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithAccount("jaejoon")
+    @DisplayName("프로필 수정시 hash 만 저장")
+    void updateProfileImage() throws Exception {
+        String dataUrl = createDataUrl();
+
+        mockMvc.perform(post("/settings/profile")
+                .param("profileImage", dataUrl)
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        Account account = accountRepository.findByNickname("jaejoon");
+        assertThat(account.getAvatar()).hasSize(32);
+        assertThat(avatarService.getAvatar(account.getAvatar())).isPresent();
+        assertThat(avatarService.store(dataUrl)).isEqualTo(account.getAvatar());
+    }
+
+    @Test
+    @WithAccount("jaejoon")
+    @DisplayName("프로필 수정시 이미지가 아니거나 svg 면 입력 오류")
+    void updateProfileImage_invalid() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>";
+        for (String dataUrl : new String[]{
+                "data:image/svg+xml;base64," + Base64.getEncoder().encodeToString(svg.getBytes()),
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(svg.getBytes()),
+                "data:image/png;base64,@@not base64@@"}) {
+            mockMvc.perform(post("/settings/profile")
+                    .param("profileImage", dataUrl)
+                    .with(csrf()))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeHasFieldErrors("profile", "profileImage"));
+        }
+
+        assertThat(accountRepository.findByNickname("jaejoon").getAvatar()).isNull();
+    }
+
+    @Test
+    @DisplayName("data URL 의 content type 이 아니라 읽은 포맷으로 저장하고 너무 큰 이미지는 받지 않는다")
+    void store_sniffedContentType() throws Exception {
+        String hash = avatarService.store(createDataUrl().replace("data:image/png", "data:text/html"));
+        assertThat(avatarService.getAvatar(hash).orElseThrow().getContentType()).isEqualTo(MediaType.IMAGE_PNG_VALUE);
+
+        String tooLarge = "data:image/png;base64," + "A".repeat(AvatarService.MAX_IMAGE_BYTES / 3 * 4 + 8);
+        assertThatThrownBy(() -> avatarService.store(tooLarge)).isInstanceOf(InvalidAvatarException.class);
+    }
+
+    private String createDataUrl() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB), "png", out);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+}
@@ -0,0 +1,32 @@
+package me.jaejoon.demo.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    static final int KEYS = 100_000;
+
+    @Test
+    @DisplayName("넣은 key 는 모두 있다고 하고, 없는 key 를 있다고 하는 비율은 fpp 근처다")
+    void falsePositiveRate() {
+        BloomFilter filter = new BloomFilter(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put("user" + i + "@email.com");
+        }
+
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(filter.mightContain("user" + i + "@email.com")).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = KEYS; i < KEYS * 2; i++) {
+            if (filter.mightContain("user" + i + "@email.com")) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / KEYS;
+        assertThat(rate).isLessThan(0.02);
+    }
+}
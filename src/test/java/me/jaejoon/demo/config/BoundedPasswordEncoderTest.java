@@ -0,0 +1,120 @@
+package me.jaejoon.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    ExecutorService callers = Executors.newFixedThreadPool(2);
+    BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void afterEach() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("해시/확인 시간을 잰다")
+    void timers() {
+        encoder = encoder(Duration.ofSeconds(5), new SlowEncoder(false));
+
+        String encoded = encoder.encode("123456789");
+
+        assertThat(encoder.matches("123456789", encoded)).isTrue();
+        assertThat(encoder.matches("987654321", encoded)).isFalse();
+        assertThat(meterRegistry.get("password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("스레드와 queue 가 차면 기다리지 않고 바로 거절한다")
+    void rejectWhenFull() throws Exception {
+        encoder = encoder(Duration.ofSeconds(5), new SlowEncoder(true));
+        Future<String> running = callers.submit(() -> encoder.encode("running"));
+        started.await(5, TimeUnit.SECONDS);
+        Future<String> queued = callers.submit(() -> encoder.encode("queued"));
+        while (meterRegistry.get("password.hash.queue").gauge().value() < 1) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.encode("rejected")).isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(meterRegistry.get("password.hash.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("{slow}running");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("{slow}queued");
+    }
+
+    @Test
+    @DisplayName("정해진 시간 안에 끝나지 않으면 거절한다")
+    void timeout() {
+        encoder = encoder(Duration.ofMillis(50), new SlowEncoder(true));
+
+        assertThatThrownBy(() -> encoder.matches("123456789", "{slow}123456789"))
+                .isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(meterRegistry.get("password.hash.rejected").counter().count()).isEqualTo(1);
+    }
+
+    private BoundedPasswordEncoder encoder(Duration timeout, PasswordEncoder delegate) {
+        AppProperties.PasswordHash properties = new AppProperties.PasswordHash();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setTimeout(timeout);
+        return new BoundedPasswordEncoder(delegate, properties, meterRegistry);
+    }
+
+    // release 될 때까지 끝나지 않는 encoder
+    class SlowEncoder implements PasswordEncoder {
+
+        private final boolean slow;
+
+        SlowEncoder(boolean slow) {
+            this.slow = slow;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "{slow}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("{slow}" + rawPassword);
+        }
+
+        private void await() {
+            started.countDown();
+            if (!slow) {
+                return;
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
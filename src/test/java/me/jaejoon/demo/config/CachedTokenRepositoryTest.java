@@ -0,0 +1,115 @@
+package me.jaejoon.demo.config;
+
+import me.jaejoon.demo.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 토큰은 JDBC 로 바로 커밋되므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+// 주기적으로 지우는 작업이 테스트 중에 끼어들지 않도록 직접 부른다.
+@SpringBootTest(properties = {"app.remember-me.sweep-delay=PT1H", "app.mail.dispatch-delay=PT1H"})
+class CachedTokenRepositoryTest {
+
+    @Autowired
+    CachedTokenRepository tokenRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    AppProperties appProperties;
+
+    @AfterEach
+    void afterEach() {
+        tokenRepository.removeUserTokens("jaejoon");
+        jdbcTemplate.update("delete from persistent_logins");
+    }
+
+    @Test
+    @DisplayName("자동 로그인 때 토큰 조회는 캐시에서 하고, 갱신은 바로 DB 에 쓴다")
+    void autoLogin_cachedRead() {
+        tokenRepository.createNewToken(new PersistentRememberMeToken("jaejoon", "series", "token0", new Date()));
+
+        queryCounter.reset();
+        for (int i = 1; i <= 3; i++) {
+            assertThat(tokenRepository.getTokenForSeries("series").getTokenValue()).isEqualTo("token" + (i - 1));
+            tokenRepository.updateToken("series", "token" + i, new Date());
+            assertThat(storedToken("series")).isEqualTo("token" + i);
+        }
+
+        // 갱신 update 3 + 확인용 select 3
+        assertThat(queryCounter.getStatementCount()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("재시작하거나 다른 서버에서도 마지막으로 바꾼 토큰을 읽는다")
+    void updateToken_visibleToOtherInstance() {
+        tokenRepository.createNewToken(new PersistentRememberMeToken("jaejoon", "series", "token0", new Date()));
+        tokenRepository.updateToken("series", "token1", new Date());
+
+        CachedTokenRepository restarted = new CachedTokenRepository(jdbcTemplate, appProperties);
+        assertThat(restarted.getTokenForSeries("series").getTokenValue()).isEqualTo("token1");
+    }
+
+    @Test
+    @DisplayName("캐시를 끄면 다른 서버가 바꾼 토큰을 매번 DB 에서 읽는다")
+    void cacheDisabled() {
+        AppProperties properties = new AppProperties();
+        properties.getRememberMe().setCacheTokens(false);
+        CachedTokenRepository uncached = new CachedTokenRepository(jdbcTemplate, properties);
+        uncached.createNewToken(new PersistentRememberMeToken("jaejoon", "series", "token0", new Date()));
+        assertThat(uncached.getTokenForSeries("series").getTokenValue()).isEqualTo("token0");
+
+        tokenRepository.updateToken("series", "token1", new Date());
+
+        assertThat(uncached.getTokenForSeries("series").getTokenValue()).isEqualTo("token1");
+    }
+
+    @Test
+    @DisplayName("로그아웃하면 캐시도 지운다")
+    void removeUserTokens() {
+        tokenRepository.createNewToken(new PersistentRememberMeToken("jaejoon", "series", "token0", new Date()));
+        tokenRepository.updateToken("series", "token1", new Date());
+
+        tokenRepository.removeUserTokens("jaejoon");
+
+        assertThat(tokenRepository.getTokenForSeries("series")).isNull();
+    }
+
+    @Test
+    @DisplayName("만료된 series 를 나눠서 모두 지우고 유효한 것은 남긴다")
+    void sweep() {
+        Timestamp expired = new Timestamp(System.currentTimeMillis() - tokenRepository.getTokenValidity().toMillis() - 1000);
+        int expiredCount = CachedTokenRepository.CHUNK_SIZE * 2 + 1;
+        List<Object[]> args = new ArrayList<>();
+        for (int i = 0; i < expiredCount; i++) {
+            args.add(new Object[]{"expired", "expired" + i, "token", expired});
+        }
+        jdbcTemplate.batchUpdate("insert into persistent_logins (username, series, token, last_used) values (?, ?, ?, ?)", args);
+        tokenRepository.createNewToken(new PersistentRememberMeToken("jaejoon", "series", "token0", new Date()));
+
+        assertThat(tokenRepository.sweep()).isEqualTo(expiredCount);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from persistent_logins", Long.class)).isEqualTo(1);
+        assertThat(tokenRepository.getTokenForSeries("series")).isNotNull();
+        assertThat(tokenRepository.getTokenForSeries("expired0")).isNull();
+    }
+
+    private String storedToken(String series) {
+        return jdbcTemplate.queryForObject("select token from persistent_logins where series = ?", String.class, series);
+    }
+}
@@ -0,0 +1,48 @@
+package me.jaejoon.demo.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    @DisplayName("최소 strength 보다 낮추지 않는다")
+    void calibrate() {
+        CalibratedBCryptPasswordEncoder encoder = CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMillis(1), 6);
+
+        assertThat(encoder.getStrength()).isEqualTo(6);
+        assertThat(encoder.matches("123456789", encoder.encode("123456789"))).isTrue();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("벤치마크 - 목표 시간 안에 끝나는 strength 를 고른다")
+    void calibrate_targetLatency() {
+        CalibratedBCryptPasswordEncoder encoder = CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMillis(50), 4);
+        String encoded = encoder.encode("123456789");
+
+        long start = System.nanoTime();
+        assertThat(encoder.matches("123456789", encoded)).isTrue();
+        long elapsed = System.nanoTime() - start;
+
+        // 측정 오차를 감안해 목표의 네배까지는 허용한다.
+        assertThat(elapsed).isLessThan(Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    @DisplayName("저장된 해시가 지금 strength 보다 약하거나 강하면 다시 해시한다")
+    void upgradeEncoding() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(6);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("123456789"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(8).encode("123456789"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("123456789"))).isFalse();
+        assertThat(encoder.upgradeEncoding("not bcrypt")).isFalse();
+    }
+}
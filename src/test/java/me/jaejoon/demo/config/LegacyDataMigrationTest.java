@@ -0,0 +1,133 @@
+package me.jaejoon.demo.config;
+
+import me.jaejoon.demo.account.AccountRepository;
+import me.jaejoon.demo.avatar.AvatarRepository;
+import me.jaejoon.demo.avatar.AvatarService;
+import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.domain.Study;
+import me.jaejoon.demo.study.StudyMemberRepository;
+import me.jaejoon.demo.study.StudyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 예전 스키마를 직접 만들어야 하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+class LegacyDataMigrationTest {
+
+    @Autowired
+    LegacyDataMigration legacyDataMigration;
+
+    @Autowired
+    AvatarService avatarService;
+
+    @Autowired
+    AvatarRepository avatarRepository;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    StudyRepository studyRepository;
+
+    @Autowired
+    StudyMemberRepository studyMemberRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("alter table account drop column if exists profile_image");
+        jdbcTemplate.execute("drop table if exists study_members");
+        jdbcTemplate.execute("drop sequence if exists hibernate_sequence");
+        studyMemberRepository.deleteAll();
+        studyRepository.deleteAll();
+        accountRepository.deleteAll();
+        avatarRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("account.profile_image 의 data URL 을 Avatar 로 옮기고 받을 수 없는 이미지는 남긴다")
+    void migrateProfileImages() throws Exception {
+        jdbcTemplate.execute("alter table account add column profile_image clob");
+        Account image = saveAccount("image");
+        Account svg = saveAccount("svg");
+        Account none = saveAccount("none");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png", out);
+        String dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray());
+        String svgUrl = "data:image/svg+xml;base64," + Base64.getEncoder().encodeToString("<svg/>".getBytes());
+        jdbcTemplate.update("update account set profile_image = ? where id = ?", dataUrl, image.getId());
+        jdbcTemplate.update("update account set profile_image = ? where id = ?", svgUrl, svg.getId());
+
+        legacyDataMigration.migrateProfileImages();
+
+        assertThat(accountRepository.findById(image.getId()).orElseThrow().getAvatar())
+                .isEqualTo(avatarService.store(dataUrl));
+        assertThat(accountRepository.findById(svg.getId()).orElseThrow().getAvatar()).isNull();
+        assertThat(accountRepository.findById(none.getId()).orElseThrow().getAvatar()).isNull();
+        assertThat(jdbcTemplate.queryForList("select id from account where profile_image is not null", Long.class))
+                .containsExactly(svg.getId());
+    }
+
+    @Test
+    @DisplayName("study_members 를 study_member 로 옮기고 member_count 를 다시 센 뒤 study_members 를 지운다")
+    void migrateStudyMembers() {
+        Account first = saveAccount("first");
+        Account second = saveAccount("second");
+        Study study = studyRepository.save(Study.builder().path("legacy").title("legacy").build());
+        jdbcTemplate.execute("create table study_members (study_id bigint not null, members_id bigint not null)");
+        jdbcTemplate.update("insert into study_members values (?, ?)", study.getId(), second.getId());
+        jdbcTemplate.update("insert into study_members values (?, ?)", study.getId(), first.getId());
+
+        legacyDataMigration.migrateStudyMembers();
+
+        assertThat(jdbcTemplate.queryForList(
+                "select account_id from study_member where study_id = ? order by id", Long.class, study.getId()))
+                .containsExactly(first.getId(), second.getId());
+        assertThat(jdbcTemplate.queryForObject(
+                "select member_count from study where id = ?", Integer.class, study.getId())).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where lower(table_name) = 'study_members'",
+                Integer.class)).isZero();
+
+        legacyDataMigration.migrateStudyMembers();
+        assertThat(studyMemberRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("hibernate_sequence 로 받은 id 뒤에서 엔티티별 시퀀스가 시작하도록 옮기고 hibernate_sequence 를 지운다")
+    void migrateSequences() {
+        Account account = saveAccount("legacy");
+        jdbcTemplate.update("update account set id = ? where id = ?", 100_000L, account.getId());
+        jdbcTemplate.execute("create sequence hibernate_sequence start with 100001 increment by 1");
+
+        legacyDataMigration.migrateSequences();
+
+        // pooled optimizer 는 받아 온 값에서 allocationSize - 1 앞의 id 부터 쓴다.
+        Long next = jdbcTemplate.queryForObject("select nextval('account_seq')", Long.class);
+        assertThat(next - 49).isGreaterThan(100_000L);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.sequences where lower(sequence_name) = 'hibernate_sequence'",
+                Integer.class)).isZero();
+
+        legacyDataMigration.migrateSequences();
+        assertThat(jdbcTemplate.queryForObject("select nextval('account_seq')", Long.class)).isEqualTo(next + 50);
+    }
+
+    private Account saveAccount(String nickname) {
+        return accountRepository.save(Account.builder()
+                .nickname(nickname).email(nickname + "@email.com").password("123456789").build());
+    }
+}
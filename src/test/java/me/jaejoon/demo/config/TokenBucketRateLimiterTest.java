@@ -0,0 +1,114 @@
+package me.jaejoon.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("capacity 만큼 쓰면 거절하고 window 에 맞춰 다시 찬다")
+    void tryAcquire_refill() {
+        TokenBucketRateLimiter limiter = limiter(3, 1_000);
+
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+        // 다른 key 는 따로 센다.
+        assertThat(limiter.tryAcquire("b")).isTrue();
+
+        now.addAndGet(Duration.ofMinutes(20).toNanos());
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+
+        assertThat(meterRegistry.get("rate.limit.rejected").tag("limiter", "test").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("돌려받은 token 은 다시 쓸 수 있고 capacity 를 넘게 쌓이지는 않는다")
+    void refund() {
+        TokenBucketRateLimiter limiter = limiter(2, 1_000);
+
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        limiter.refund("a");
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+
+        limiter.refund("a");
+        limiter.refund("a");
+        limiter.refund("a");
+        limiter.refund("unknown");
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+    }
+
+    @Test
+    @DisplayName("key 가 많아지면 오래 쓰지 않은 key 부터 버린다")
+    void tryAcquire_evict() {
+        int maxKeys = TokenBucketRateLimiter.STRIPES * 2;
+        TokenBucketRateLimiter limiter = limiter(1, maxKeys);
+
+        for (int i = 0; i < maxKeys * 10; i++) {
+            limiter.tryAcquire("key" + i);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(maxKeys);
+        assertThat(meterRegistry.get("rate.limit.evicted").tag("limiter", "test").counter().count())
+                .isEqualTo(maxKeys * 10 - limiter.size());
+        assertThat(meterRegistry.get("rate.limit.keys").tag("limiter", "test").gauge().value())
+                .isEqualTo(limiter.size());
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 같은 key 로 동시에 요청해도 capacity 만큼만 통과한다")
+    void tryAcquire_concurrently() throws Exception {
+        TokenBucketRateLimiter limiter = limiter(100, 1_000);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int acquired = 0;
+                for (int j = 0; j < 100; j++) {
+                    if (limiter.tryAcquire("shared")) {
+                        acquired++;
+                    }
+                }
+                return acquired;
+            }));
+        }
+        start.countDown();
+        int acquired = 0;
+        for (Future<Integer> future : futures) {
+            acquired += future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(acquired).isEqualTo(100);
+    }
+
+    private TokenBucketRateLimiter limiter(int capacity, int maxKeys) {
+        return new TokenBucketRateLimiter("test", capacity, Duration.ofHours(1), maxKeys, meterRegistry, now::get);
+    }
+}
@@ -0,0 +1,109 @@
+package me.jaejoon.demo.domain;
+
+import me.jaejoon.demo.QueryCounter;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BatchInsertTest {
+
+    static final int SIGNUPS = 1000;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Test
+    @DisplayName("예전 매핑 - 공유 시퀀스를 row 마다 부르고 insert 도 하나씩 보낸다")
+    void sharedSequenceBaseline() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+        queryCounter.reset();
+        for (int i = 0; i < SIGNUPS; i++) {
+            entityManager.persist(new SharedSequenceTag("shared" + i));
+        }
+        entityManager.flush();
+        long sharedStatements = queryCounter.getStatementCount();
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(50);
+        queryCounter.reset();
+        for (int i = 0; i < SIGNUPS; i++) {
+            entityManager.persist(Tag.builder().title("pooled" + i).build());
+        }
+        entityManager.flush();
+        long pooledStatements = queryCounter.getStatementCount();
+
+        // nextval 과 insert 가 row 마다 하나씩이다.
+        assertThat(sharedStatements).isGreaterThanOrEqualTo(2 * SIGNUPS);
+        // 시퀀스는 50 개마다, insert 는 50 개씩 묶어서 보낸다.
+        assertThat(pooledStatements).isLessThanOrEqualTo(2 * (SIGNUPS / 50 + 1));
+    }
+
+    @Test
+    @DisplayName("대량 가입/참가 신청 - 시퀀스를 미리 당겨 쓰고 insert 를 batch 로 보낸다")
+    void bulkSignUpAndEnroll() {
+        Tag tag = Tag.builder().title("batch").build();
+        entityManager.persist(tag);
+        Event event = newEvent();
+        entityManager.persist(event);
+        entityManager.flush();
+
+        // batch 를 끈 것과 비교한다. (시퀀스는 양쪽 다 미리 당겨 쓴다)
+        long unbatchedStatements = insert("single", tag, event, 1);
+        long batchedStatements = insert("batch", tag, event, 50);
+
+        // 가입, 가입자 태그, 참가 신청 row 가 각각 1000 개씩이다.
+        assertThat(unbatchedStatements).isGreaterThanOrEqualTo(3 * SIGNUPS);
+        assertThat(batchedStatements).isLessThan(3 * SIGNUPS / 50 + 2 * SIGNUPS / 50 + 10);
+    }
+
+    // 실행한 SQL 문장 수를 돌려준다.
+    private long insert(String prefix, Tag tag, Event event, int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        queryCounter.reset();
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < SIGNUPS; i++) {
+            Account account = Account.builder()
+                    .nickname(prefix + i).email(prefix + i + "@email.com").password("123456789")
+                    .joinedAt(LocalDateTime.now()).tags(new HashSet<>(Set.of(tag))).build();
+            entityManager.persist(account);
+            accounts.add(account);
+        }
+        for (Account account : accounts) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setEvent(event);
+            enrollment.setAccount(account);
+            enrollment.setEnrolledAt(LocalDateTime.now());
+            entityManager.persist(enrollment);
+        }
+        entityManager.flush();
+        long statements = queryCounter.getStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+
+    private Event newEvent() {
+        Event event = new Event();
+        event.setTitle("batch");
+        event.setCreatedDateTime(LocalDateTime.now());
+        event.setEndEnrollmentDateTime(LocalDateTime.now().plusDays(1));
+        event.setStartDateTime(LocalDateTime.now().plusDays(2));
+        event.setEndDateTime(LocalDateTime.now().plusDays(3));
+        return event;
+    }
+}
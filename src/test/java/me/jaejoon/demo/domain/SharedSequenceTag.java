@@ -0,0 +1,25 @@
+package me.jaejoon.demo.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * 예전 매핑(@GeneratedValue 하나로 모든 엔티티가 같은 시퀀스를 row 마다 nextval)과 비교하기 위한 테스트용 엔티티.
+ * 운영 DB 의 hibernate_sequence 와 섞이지 않도록 이름만 다르게 둔다.
+ */
+@Entity
+@Getter @NoArgsConstructor
+public class SharedSequenceTag {
+
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shared_sequence")
+    @SequenceGenerator(name = "shared_sequence", sequenceName = "shared_sequence", allocationSize = 1)
+    private Long id;
+
+    private String title;
+
+    public SharedSequenceTag(String title) {
+        this.title = title;
+    }
+}
@@ -0,0 +1,135 @@
+package me.jaejoon.demo.mail;
+
+import me.jaejoon.demo.domain.OutboxEmail;
+import me.jaejoon.demo.domain.OutboxStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// outbox 는 커밋된 것만 보내므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+// 주기적으로 보내는 작업이 테스트 중에 끼어들지 않도록 직접 부른다.
+@SpringBootTest(properties = "app.mail.dispatch-delay=PT1H")
+class EmailDispatcherTest {
+
+    @Autowired
+    EmailDispatcher emailDispatcher;
+
+    @Autowired
+    EmailOutbox emailOutbox;
+
+    @Autowired
+    OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    // 묶어 보내는 sendEmails 는 인터페이스 기본 구현대로 sendEmail 을 하나씩 부른다.
+    @MockBean(answer = Answers.CALLS_REAL_METHODS)
+    EmailService emailService;
+
+    @AfterEach
+    void afterEach() {
+        outboxEmailRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("쌓인 메일을 batch 로 나눠 모두 보낸다")
+    void dispatch_batches() {
+        int count = EmailDispatcher.BATCH_SIZE * 2 + 10;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                emailOutbox.enqueue(message("user" + i + "@email.com"));
+            }
+        });
+
+        assertThat(emailDispatcher.dispatch(LocalDateTime.now())).isEqualTo(count);
+
+        verify(emailService, times(count)).sendEmail(any(EmailMessage.class));
+        assertThat(outboxEmailRepository.findAll()).extracting(OutboxEmail::getStatus).containsOnly(OutboxStatus.SENT);
+        assertThat(emailDispatcher.dispatch(LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    @DisplayName("읽은 뒤에 다른 서버가 먼저 lease 한 메일은 보내지 않는다")
+    void dispatch_leasedByOther() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                emailOutbox.enqueue(message("user" + i + "@email.com"));
+            }
+        });
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = outboxEmailRepository.findIdsToSend(OutboxStatus.PENDING, now, PageRequest.of(0, 10));
+
+        assertThat(outboxEmailRepository.lease(ids.subList(0, 1), OutboxStatus.PENDING, now, now.plus(EmailDispatcher.LEASE), "other"))
+                .isEqualTo(1);
+        assertThat(outboxEmailRepository.lease(ids.subList(0, 1), OutboxStatus.PENDING, now, now.plus(EmailDispatcher.LEASE), "again"))
+                .isZero();
+
+        assertThat(emailDispatcher.dispatch(now)).isEqualTo(2);
+        verify(emailService, times(2)).sendEmail(any(EmailMessage.class));
+        assertThat(outboxEmailRepository.findById(ids.get(0)).orElseThrow().getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(outboxEmailRepository.lease(ids, OutboxStatus.PENDING, now, now.plus(EmailDispatcher.LEASE), "late"))
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("롤백된 트랜잭션의 메일은 보내지 않는다")
+    void rollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutbox.enqueue(message("user@email.com"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxEmailRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("실패하면 간격을 늘려가며 다시 보내고, 계속 실패하면 DEAD 로 남긴다")
+    void retry_backoff_deadLetter() {
+        willThrow(new MailSendException("smtp down")).given(emailService).sendEmail(any(EmailMessage.class));
+        Long id = transactionTemplate.execute(status -> emailOutbox.enqueue(message("user@email.com")).getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(emailDispatcher.dispatch(now)).isZero();
+        OutboxEmail failed = outboxEmailRepository.findById(id).orElseThrow();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("smtp down");
+        assertThat(failed.getNextAttemptAt()).isEqualTo(now.plus(EmailDispatcher.BASE_BACKOFF));
+
+        // 다시 보낼 때가 되기 전에는 보내지 않는다.
+        emailDispatcher.dispatch(now.plusSeconds(1));
+        verify(emailService, times(1)).sendEmail(any(EmailMessage.class));
+
+        OutboxEmail email = failed;
+        while (email.getStatus() == OutboxStatus.PENDING) {
+            emailDispatcher.dispatch(email.getNextAttemptAt());
+            email = outboxEmailRepository.findById(id).orElseThrow();
+        }
+
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.DEAD);
+        assertThat(email.getAttempts()).isEqualTo(EmailDispatcher.MAX_ATTEMPTS);
+        verify(emailService, times(EmailDispatcher.MAX_ATTEMPTS)).sendEmail(any(EmailMessage.class));
+        assertThat(EmailDispatcher.backoff(4)).isEqualTo(EmailDispatcher.BASE_BACKOFF.multipliedBy(8));
+        assertThat(EmailDispatcher.backoff(30)).isEqualTo(EmailDispatcher.MAX_BACKOFF);
+    }
+
+    private EmailMessage message(String to) {
+        return EmailMessage.builder().to(to).subject("subject").message("<p>message</p>").build();
+    }
+}
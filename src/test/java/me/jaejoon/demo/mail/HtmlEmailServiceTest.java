@@ -0,0 +1,111 @@
+package me.jaejoon.demo.mail;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 로컬 SMTP 서버(GreenMail)에 실제로 보낸다. 스프링 컨텍스트는 띄우지 않는다.
+class HtmlEmailServiceTest {
+
+    static final int MESSAGES = 100;
+
+    GreenMail greenMail;
+
+    HtmlEmailService htmlEmailService;
+
+    @BeforeEach
+    void beforeEach() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        htmlEmailService = new HtmlEmailService(mailSender);
+    }
+
+    @AfterEach
+    void afterEach() {
+        greenMail.stop();
+    }
+
+    @Test
+    @DisplayName("여러 메일을 한 연결로 모두 보낸다")
+    void sendEmails() throws Exception {
+        EmailBatchResult result = htmlEmailService.sendEmails(messages("batch", MESSAGES));
+
+        assertThat(result.getSentCount()).isEqualTo(MESSAGES);
+        assertThat(result.getFailedCount()).isZero();
+        assertThat(greenMail.waitForIncomingEmail(10_000, MESSAGES)).isTrue();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("벤치마크 - 연결을 다시 쓰며 보낼 때와 하나씩 보낼 때의 처리량")
+    void sendEmails_throughput() throws Exception {
+        // 처음 연결할 때의 비용이 결과에 섞이지 않게 먼저 한번 보낸다.
+        htmlEmailService.sendEmails(messages("warmup", 10));
+
+        long start = System.nanoTime();
+        for (EmailMessage message : messages("single", MESSAGES)) {
+            htmlEmailService.sendEmail(message);
+        }
+        long single = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        EmailBatchResult result = htmlEmailService.sendEmails(messages("batch", MESSAGES));
+        long batch = System.nanoTime() - start;
+
+        assertThat(result.getSentCount()).isEqualTo(MESSAGES);
+        assertThat(batch).isLessThan(single);
+    }
+
+    @Test
+    @DisplayName("보내지 못한 메일만 실패로 세고 나머지는 보낸다")
+    void sendEmails_partialFailure() throws Exception {
+        List<EmailMessage> messages = messages("partial", 5);
+        messages.set(2, EmailMessage.builder().to("not an address").subject("fail").message("<p>fail</p>").build());
+
+        EmailBatchResult result = htmlEmailService.sendEmails(messages);
+
+        assertThat(result.getSentCount()).isEqualTo(4);
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(result.isSent(2)).isFalse();
+        assertThat(result.getFailure(2)).isInstanceOf(MailPreparationException.class);
+        assertThat(greenMail.waitForIncomingEmail(5_000, 4)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("SMTP 서버에 연결하지 못하면 모두 실패로 센다")
+    void sendEmails_connectionFailure() {
+        greenMail.stop();
+
+        EmailBatchResult result = htmlEmailService.sendEmails(messages("down", 3));
+
+        assertThat(result.getSentCount()).isZero();
+        assertThat(result.getFailedCount()).isEqualTo(3);
+    }
+
+    private List<EmailMessage> messages(String prefix, int count) {
+        List<EmailMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(EmailMessage.builder()
+                    .to(prefix + i + "@email.com")
+                    .subject(prefix + i)
+                    .message("<p>" + prefix + i + "</p>")
+                    .build());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,75 @@
+package me.jaejoon.demo.mail;
+
+import me.jaejoon.demo.config.AppProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SendMailTemplateTest {
+
+    static final int RENDERS = 20_000;
+
+    @Autowired
+    SendMailTemplate sendMailTemplate;
+
+    @Autowired
+    TemplateEngine templateEngine;
+
+    @Autowired
+    AppProperties properties;
+
+    @Test
+    @DisplayName("Thymeleaf 로 그린 것과 같은 결과를 만들고 값을 escape 한다")
+    void render_sameAsThymeleaf() {
+        String nickname = "<script>alert('x')</script>&\"닉네임\"";
+        String link = "/check-email-token?token=abc&email=a+b@email.com";
+
+        String rendered = sendMailTemplate.render(nickname, "메시지 <b>", link, "이메일 인증");
+
+        assertThat(rendered).isEqualTo(thymeleaf(nickname, "메시지 <b>", link, "이메일 인증"));
+        assertThat(rendered).doesNotContain("<script>");
+        assertThat(rendered).contains("token=abc&amp;email=a+b@email.com");
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("벤치마크 - 조각을 이어 붙이는 것이 매번 템플릿을 처리하는 것보다 빠르다")
+    void render_throughput() {
+        // JIT 가 충분히 돌도록 먼저 돌린다.
+        for (int i = 0; i < 2_000; i++) {
+            thymeleaf("user" + i, "message", "/link?token=" + i, "link");
+            sendMailTemplate.render("user" + i, "message", "/link?token=" + i, "link");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RENDERS; i++) {
+            thymeleaf("user" + i, "message", "/link?token=" + i, "link");
+        }
+        long thymeleaf = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < RENDERS; i++) {
+            sendMailTemplate.render("user" + i, "message", "/link?token=" + i, "link");
+        }
+        long precompiled = System.nanoTime() - start;
+
+        assertThat(precompiled).isLessThan(thymeleaf);
+    }
+
+    private String thymeleaf(String nickname, String message, String link, String linkName) {
+        Context context = new Context();
+        context.setVariable("nickname", nickname);
+        context.setVariable("message", message);
+        context.setVariable("host", properties.getHost());
+        context.setVariable("link", link);
+        context.setVariable("linkName", linkName);
+        return templateEngine.process(SendMailTemplate.TEMPLATE, context);
+    }
+}
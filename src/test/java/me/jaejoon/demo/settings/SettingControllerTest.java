@@ -68,7 +68,7 @@ class SettingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name(SETTINGS+ZONES))
                 .andExpect(model().attributeExists("zones"))
-                .andExpect(model().attributeExists("whitelist"));
+                .andExpect(model().attributeDoesNotExist("whitelist"));
 
     }
     @Test
@@ -123,7 +123,7 @@ class SettingControllerTest {
                 .andExpect(view().name(SETTINGS+TAGS))
                 .andExpect(model().attributeExists("account"))
                 .andExpect(model().attributeExists("tags"))
-                .andExpect(model().attributeExists("whiteList"));
+                .andExpect(model().attributeDoesNotExist("whitelist"));
 
     }
     @Test
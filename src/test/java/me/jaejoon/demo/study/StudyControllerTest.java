@@ -1,20 +1,26 @@
 package me.jaejoon.demo.study;
 
+import com.jayway.jsonpath.JsonPath;
+import me.jaejoon.demo.QueryCounter;
 import me.jaejoon.demo.WithAccount;
 import me.jaejoon.demo.WithAccountAndStudyPage;
 import me.jaejoon.demo.account.AccountRepository;
 import me.jaejoon.demo.domain.Account;
 import me.jaejoon.demo.domain.Study;
 import me.jaejoon.demo.study.form.StudyForm;
+import me.jaejoon.demo.tag.TagService;
+import me.jaejoon.demo.zone.ZoneRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
@@ -22,6 +28,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +53,22 @@ class StudyControllerTest {
 
     @Autowired
     ModelMapper modelMapper;
+
+    @Autowired
+    TagService tagService;
+
+    @Autowired
+    ZoneRepository zoneRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    StudyMemberRepository studyMemberRepository;
+
     @Test
     @DisplayName("스터디 생성 폼")
     @WithAccount("kjj924")
@@ -144,8 +168,26 @@ class StudyControllerTest {
 
         Account joinMember = accountRepository.findByNickname("kjj924");
         Study study = studyRepository.findByPath(path);
+        entityManager.refresh(study);
 
-        assertThat(study.getMembers().contains(joinMember)).isTrue();
+        assertThat(studyMemberRepository.existsByStudyIdAndAccountId(study.getId(), joinMember.getId())).isTrue();
+        assertThat(study.getMemberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("스터디 맴버 join - 두번 눌러도 한번만 가입")
+    @WithAccountAndStudyPage(value = "kjj924",path = "test", title = "testTitle")
+    void memberJoin_twice() throws Exception {
+        mockMvc.perform(get("/study/test/join"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/study/test/join"))
+                .andExpect(status().is3xxRedirection());
+
+        Study study = studyRepository.findByPath("test");
+        entityManager.refresh(study);
+
+        assertThat(studyMemberRepository.count()).isEqualTo(1);
+        assertThat(study.getMemberCount()).isEqualTo(1);
     }
 
     @Test
@@ -155,12 +197,84 @@ class StudyControllerTest {
         String path = URLEncoder.encode("test", StandardCharsets.UTF_8);
         Account joinMember = accountRepository.findByNickname("kjj924");
         Study study = studyRepository.findByPath(path);
-        study.getMembers().add(joinMember);
+        studyService.joinMember(joinMember, study.getId());
 
         mockMvc.perform(get("/study/"+path+"/leave"))
                 .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/study/"+path+"/leave"))
+                .andExpect(status().is3xxRedirection());
+        entityManager.refresh(study);
+
+        assertThat(studyMemberRepository.existsByStudyIdAndAccountId(study.getId(), joinMember.getId())).isFalse();
+        assertThat(study.getMemberCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("스터디 조회 - 맴버 수와 상관없이 일정한 쿼리")
+    @WithAccountAndStudyPage(value = "kjj924",path = "test", title = "testTitle")
+    void viewStudy_query_count() throws Exception {
+        Study study = studyRepository.findByPath("test");
+        for (int i = 0; i < 3; i++) {
+            studyService.joinMember(accountRepository.save(Account.builder()
+                    .nickname("member" + i).email("member" + i + "@email.com").password("123456789").build()), study.getId());
+        }
+        study.getTags().add(tagService.findOrCreateNew("spring"));
+        study.getTags().add(tagService.findOrCreateNew("jpa"));
+        zoneRepository.findAll(PageRequest.of(0, 2)).forEach(study.getZones()::add);
+        entityManager.flush();
+        entityManager.clear();
+        queryCounter.reset();
+
+        mockMvc.perform(get("/study/test"))
+                .andExpect(status().isOk());
+
+        // 화면에 쓰는 로그인 계정 1 + study 1 + tags 2 + zones 2 + 맴버 여부 0 + 관리자 여부 1 (맴버 목록은 읽지 않는다)
+        assertThat(queryCounter.getStatementCount()).isEqualTo(6);
+        assertThat(queryCounter.getRowCount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("스터디 맴버 조회 - 페이지 단위")
+    @WithAccountAndStudyPage(value = "kjj924",path = "test", title = "testTitle")
+    void viewMembers_paging() throws Exception {
+        Study study = studyRepository.findByPath("test");
+        for (int i = 24; i >= 0; i--) {
+            studyService.joinMember(accountRepository.save(Account.builder()
+                    .nickname(String.format("member%02d", i)).email("member" + i + "@email.com").password("123456789").build()), study.getId());
+        }
+
+        mockMvc.perform(get("/study/test/members"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("members", hasSize(20)))
+                .andExpect(model().attribute("next", "member19"));
+
+        mockMvc.perform(get("/study/test/members/page")
+                .param("after", "member19"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members", hasSize(5)))
+                .andExpect(jsonPath("$.members[0].nickname").value("member20"))
+                .andExpect(jsonPath("$.next").value(nullValue()));
+
+        String next = mockMvc.perform(get("/study/test/members/page")
+                .param("order", "JOINED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members", hasSize(20)))
+                .andExpect(jsonPath("$.members[0].nickname").value("member24"))
+                .andExpect(jsonPath("$.members[0].id").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/study/test/members/page")
+                .param("order", "JOINED")
+                .param("after", JsonPath.<String>read(next, "$.next")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members", hasSize(5)))
+                .andExpect(jsonPath("$.members[4].nickname").value("member00"))
+                .andExpect(jsonPath("$.next").value(nullValue()));
 
-        assertThat(study.getMembers().contains(joinMember)).isFalse();
+        mockMvc.perform(get("/study/test/members/page")
+                .param("order", "JOINED")
+                .param("after", "member19"))
+                .andExpect(status().isBadRequest());
     }
 
-}
\ No newline at end of file
+}
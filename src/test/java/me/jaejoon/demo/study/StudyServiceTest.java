@@ -0,0 +1,200 @@
+package me.jaejoon.demo.study;
+
+import me.jaejoon.demo.account.AccountRepository;
+import me.jaejoon.demo.account.UserAccount;
+import me.jaejoon.demo.domain.Account;
+import me.jaejoon.demo.domain.Study;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// 여러 스레드가 각자 커밋해야 하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+@AutoConfigureMockMvc
+class StudyServiceTest {
+
+    static final int JOINERS = 50;
+
+    @Autowired
+    StudyService studyService;
+
+    @Autowired
+    StudyRepository studyRepository;
+
+    @Autowired
+    StudyMemberRepository studyMemberRepository;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    StudyPathKeys studyPathKeys;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @AfterEach
+    void afterEach() {
+        studyMemberRepository.deleteAllInBatch();
+        studyRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("여러 명이 동시에 두번씩 가입/탈퇴해도 가입 row 와 맴버 수가 맞는다")
+    void joinAndLeave_concurrently() throws Exception {
+        Study study = new Study();
+        study.setPath("test");
+        study.setTitle("test");
+        Long studyId = studyService.createStudy(saveAccount("manager"), study).getId();
+        List<Account> joiners = new ArrayList<>();
+        for (int i = 0; i < JOINERS; i++) {
+            joiners.add(saveAccount("member" + i));
+        }
+
+        runTwiceConcurrently(joiners, account -> studyService.joinMember(account, studyId));
+
+        assertThat(studyMemberRepository.count()).isEqualTo(JOINERS);
+        assertThat(studyRepository.findById(studyId).orElseThrow().getMemberCount()).isEqualTo(JOINERS);
+
+        runTwiceConcurrently(joiners, account -> studyService.leaveMember(account, studyId));
+
+        assertThat(studyMemberRepository.count()).isZero();
+        assertThat(studyRepository.findById(studyId).orElseThrow().getMemberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("여러 관리자가 동시에 상태를 바꿔도 한번만 바뀐다")
+    void statusTransition_exactlyOnce() throws Exception {
+        Study study = new Study();
+        study.setPath("test");
+        study.setTitle("test");
+        Long studyId = studyService.createStudy(saveAccount("manager"), study).getId();
+
+        assertThat(countSuccess(() -> studyService.publish(studyId))).isEqualTo(1);
+        assertThat(countSuccess(() -> studyService.startRecruit(studyId))).isEqualTo(1);
+        // 한 시간 안에는 모집 상태를 다시 바꿀 수 없다.
+        assertThat(countSuccess(() -> studyService.stopRecruit(studyId))).isZero();
+        assertThat(countSuccess(() -> studyService.close(studyId))).isEqualTo(1);
+
+        Study result = studyRepository.findById(studyId).orElseThrow();
+        assertThat(result.isPublished()).isTrue();
+        assertThat(result.isRecruiting()).isTrue();
+        assertThat(result.isClosed()).isTrue();
+        assertThat(studyService.publish(studyId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("filter 에 없는 path 가 먼저 저장돼 있으면 스터디 생성을 입력 오류로 돌려준다")
+    void createStudy_pathTakenAfterRebuild() throws Exception {
+        Account account = saveAccount("manager");
+        studyPathKeys.rebuild();
+        // 다른 서버에서 만든 것처럼 filter 를 거치지 않고 저장한다.
+        studyRepository.save(newStudy("taken"));
+
+        mockMvc.perform(post("/new-study")
+                .param("path", "taken")
+                .param("title", "study")
+                .param("shortDescription", "short")
+                .param("fullDescription", "full")
+                .with(user(new UserAccount(account)))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("study/form"))
+                .andExpect(model().attributeHasFieldErrors("studyForm", "path"));
+
+        assertThat(studyRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("filter 에 없는 path 가 먼저 저장돼 있으면 path 변경을 오류 메시지로 돌려준다")
+    void updatePath_takenAfterRebuild() throws Exception {
+        Account account = saveAccount("manager");
+        studyService.createStudy(account, newStudy("mine"));
+        studyPathKeys.rebuild();
+        studyRepository.save(newStudy("taken"));
+
+        mockMvc.perform(post("/study/mine/settings/study/path")
+                .param("newPath", "taken")
+                .with(user(new UserAccount(account)))
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/study/mine/settings/study"))
+                .andExpect(flash().attributeExists("studyPathError"));
+
+        assertThat(studyRepository.findByPath("mine")).isNotNull();
+    }
+
+    private Study newStudy(String path) {
+        Study study = new Study();
+        study.setPath(path);
+        study.setTitle(path);
+        return study;
+    }
+
+    private Account saveAccount(String nickname) {
+        return accountRepository.save(Account.builder()
+                .nickname(nickname).email(nickname + "@email.com").password("123456789").build());
+    }
+
+    private void runTwiceConcurrently(List<Account> accounts, Consumer<Account> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Account account : accounts) {
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        task.accept(account);
+                    } catch (DataIntegrityViolationException e) {
+                        // 같은 사람의 가입이 동시에 들어오면 하나는 unique 제약에 걸린다. (컨트롤러와 같은 처리)
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private long countSuccess(Callable<Boolean> transition) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return transition.call();
+            }));
+        }
+        start.countDown();
+        long success = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(30, TimeUnit.SECONDS)) {
+                success++;
+            }
+        }
+        executor.shutdown();
+        return success;
+    }
+}
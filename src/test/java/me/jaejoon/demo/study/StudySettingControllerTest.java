@@ -1,6 +1,7 @@
 package me.jaejoon.demo.study;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import me.jaejoon.demo.QueryCounter;
 import me.jaejoon.demo.WithAccountAndStudyPage;
 import me.jaejoon.demo.domain.Study;
 import me.jaejoon.demo.domain.Tag;
@@ -18,6 +19,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -51,6 +53,11 @@ class StudySettingControllerTest {
     @Autowired
     StudyService studyService;
 
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    QueryCounter queryCounter;
 
     @Test
     @DisplayName("스터디 소개 설정 페이지 보기")
@@ -157,7 +164,7 @@ class StudySettingControllerTest {
                 .andExpect(model().attributeExists("study"))
                 .andExpect(model().attributeExists("account"))
                 .andExpect(model().attributeExists("zones"))
-                .andExpect(model().attributeExists("whitelist"))
+                .andExpect(model().attributeDoesNotExist("whitelist"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("study/zones"));
     }
@@ -214,7 +221,7 @@ class StudySettingControllerTest {
                 .andExpect(model().attributeExists("account"))
                 .andExpect(model().attributeExists("study"))
                 .andExpect(model().attributeExists("tags"))
-                .andExpect(model().attributeExists("whitelist"))
+                .andExpect(model().attributeDoesNotExist("whitelist"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("study/tags"));
     }
@@ -290,6 +297,7 @@ class StudySettingControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/study/"+path+"/settings/study"));
         Study study = studyRepository.findByPath(path);
+        entityManager.refresh(study);
 
         assertThat(study.isPublished()).isTrue();
     }
@@ -300,14 +308,14 @@ class StudySettingControllerTest {
     void studyClose() throws Exception {
         String path = URLEncoder.encode("test", StandardCharsets.UTF_8);
         Study study = studyRepository.findByPath(path);
-        studyService.publish(study);
-        assertThat(study.isPublished()).isTrue();
+        assertThat(studyService.publish(study.getId())).isTrue();
 
         mockMvc.perform(post("/study/"+path+"/settings/study/close")
                 .with(csrf()))
                 .andExpect(flash().attributeExists("message"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/study/"+path+"/settings/study"));
+        entityManager.refresh(study);
 
         assertThat(study.isClosed()).isTrue();
     }
@@ -319,12 +327,13 @@ class StudySettingControllerTest {
     void startRecruit() throws Exception {
         String path = URLEncoder.encode("test", StandardCharsets.UTF_8);
         Study study = studyRepository.findByPath(path);
-        studyService.publish(study);
+        studyService.publish(study.getId());
         mockMvc.perform(post("/study/"+path+"/settings/recruit/start")
                 .with(csrf()))
                 .andExpect(flash().attributeExists("message"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/study/"+path+"/settings/study"));
+        entityManager.refresh(study);
 
         assertThat(study.isRecruiting()).isTrue();
     }
@@ -335,12 +344,13 @@ class StudySettingControllerTest {
     void stopRecruit() throws Exception {
         String path = URLEncoder.encode("test", StandardCharsets.UTF_8);
         Study study = studyRepository.findByPath(path);
-        studyService.publish(study);
+        studyService.publish(study.getId());
         mockMvc.perform(post("/study/"+path+"/settings/recruit/stop")
                 .with(csrf()))
                 .andExpect(flash().attributeExists("message"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/study/"+path+"/settings/study"));
+        entityManager.refresh(study);
 
         assertThat(study.isRecruiting()).isFalse();
     }
@@ -382,4 +392,117 @@ class StudySettingControllerTest {
 
         assertThat(study.getTitle()).isEqualTo("제목변경");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("쿼리 수 - 배너 사용")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_banner() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/banner/enable")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        assertQueryBudget(StudyFetchPlan.BANNER, 0);
+    }
+
+    @Test
+    @DisplayName("쿼리 수 - 스터디 소개 변경")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_description() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/description")
+                .param("shortDescription","shortDescription 변경됨")
+                .param("fullDescription","fullDescription 변경됨")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        assertQueryBudget(StudyFetchPlan.DESCRIPTION, 0);
+    }
+
+    @Test
+    @DisplayName("쿼리 수 - 스터디 Title 수정")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_title() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/study/title")
+                .param("newTitle","제목변경")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        assertQueryBudget(StudyFetchPlan.TITLE, 0);
+    }
+
+    @Test
+    @DisplayName("쿼리 수 - 스터디 Path 수정")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_path() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/study/path")
+                .param("newPath","변경")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        // path 중복 확인
+        assertQueryBudget(StudyFetchPlan.PATH, 1);
+    }
+
+    @Test
+    @DisplayName("쿼리 수 - 스터디 공개")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_status() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/study/publish")
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        // 관리자 확인 1 + 조건부 update 1 (관리자 목록은 읽지 않는다)
+        assertThat(queryCounter.getStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("쿼리 수 - 태그 추가")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_tags() throws Exception {
+        TagForm tagForm = new TagForm();
+        tagForm.setTagTitle("testTag");
+
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/tags/add")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(tagForm)))
+                .andExpect(status().isOk());
+
+        // 태그 조회 + 새 태그 id 발급
+        assertQueryBudget(StudyFetchPlan.TAGS, 2);
+    }
+
+    @Test
+    @DisplayName("쿼리 수 - zone 추가")
+    @WithAccountAndStudyPage(value ="kjj924",title ="봄싹스터디",path = "test")
+    void queryBudget_zones() throws Exception {
+        ZoneForm zoneForm = new ZoneForm();
+        zoneForm.setZoneName("Asan(아산시)/South Chungcheong");
+        zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+
+        resetQueryCount();
+        mockMvc.perform(post("/study/test/settings/zones/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(zoneForm))
+                .with(csrf()))
+                .andExpect(status().isOk());
+
+        // zone 은 캐시에서 찾는다
+        assertQueryBudget(StudyFetchPlan.ZONES, 0);
+    }
+
+    private void resetQueryCount() {
+        entityManager.flush();
+        entityManager.clear();
+        queryCounter.reset();
+    }
+
+    private void assertQueryBudget(StudyFetchPlan fetchPlan, int extraQueries) {
+        assertThat(queryCounter.getStatementCount()).isLessThanOrEqualTo(fetchPlan.getQueryCount() + extraQueries);
+    }
+}
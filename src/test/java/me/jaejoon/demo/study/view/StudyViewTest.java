@@ -0,0 +1,29 @@
+package me.jaejoon.demo.study.view;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StudyViewTest {
+
+    @DisplayName("스터디 공개, 모집중 and 이미 맴버나 관리자가 아니면 가입가능")
+    @Test
+    void isJoinEnable(){
+        StudyView study = StudyView.builder().published(true).recruiting(true).build();
+        Assertions.assertThat(study.isJoinable()).isTrue();
+    }
+
+    @DisplayName("스터디 공개, 모집중 and 맴버가 관리자가 면 가입 불가능")
+    @Test
+    void isJoin_false_for_manager(){
+        StudyView study = StudyView.builder().published(true).recruiting(true).manager(true).build();
+        Assertions.assertThat(study.isJoinable()).isFalse();
+    }
+
+    @DisplayName("스터디 공개, 모집중 and 멤버가 이미 멤버 면 가입 불가능")
+    @Test
+    void isJoin_false_for_member(){
+        StudyView study = StudyView.builder().published(true).recruiting(true).member(true).build();
+        Assertions.assertThat(study.isJoinable()).isFalse();
+    }
+}
@@ -0,0 +1,89 @@
+package me.jaejoon.demo.tag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.jaejoon.demo.QueryCounter;
+import me.jaejoon.demo.config.CacheConfig;
+import me.jaejoon.demo.domain.Tag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 캐시는 커밋된 뒤에만 채워지므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+class TagServiceTest {
+
+    @Autowired
+    TagService tagService;
+
+    @Autowired
+    TagRepository tagRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    TagSuggestService tagSuggestService;
+
+    @AfterEach
+    void afterEach() {
+        tagRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("이미 있는 태그는 DB 를 조회하지 않는다")
+    void findOrCreateNew_cached() {
+        Tag spring = tagService.findOrCreateNew("spring");
+        double hits = cacheGets(CacheConfig.TAG, "hit");
+
+        queryCounter.reset();
+        Tag cached = tagService.findOrCreateNew("spring");
+
+        assertThat(cached).isEqualTo(spring);
+        assertThat(queryCounter.getStatementCount()).isZero();
+        assertThat(cacheGets(CacheConfig.TAG, "hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    @DisplayName("새 태그를 만들면 전체 태그 목록 캐시를 비운다")
+    void findOrCreateNew_evictAll() {
+        tagService.findOrCreateNew("spring");
+        assertThat(tagRepository.findAll()).extracting(Tag::getTitle).containsExactly("spring");
+
+        queryCounter.reset();
+        tagRepository.findAll();
+        assertThat(queryCounter.getStatementCount()).isZero();
+
+        tagService.findOrCreateNew("jpa");
+
+        assertThat(tagRepository.findAll()).extracting(Tag::getTitle).containsExactlyInAnyOrder("spring", "jpa");
+    }
+
+    @Test
+    @DisplayName("새 태그는 자동완성에 바로 나온다")
+    void suggest_createdTag() {
+        tagService.findOrCreateNew("spring");
+        assertThat(tagSuggestService.suggest("spr", 10)).containsExactly("spring");
+
+        tagService.findOrCreateNew("sprint");
+
+        assertThat(tagSuggestService.suggest("spr", 10)).containsExactly("spring", "sprint");
+        assertThat(tagSuggestService.suggest("spr", -1)).containsExactly("spring");
+        assertThat(tagSuggestService.suggest("spr", 0)).containsExactly("spring");
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,118 @@
+package me.jaejoon.demo.tag;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagSuggestIndexTest {
+
+    @Test
+    @DisplayName("접두어가 같은 태그를 인기 순으로")
+    void suggest_byPopularity() {
+        TagSuggestIndex index = new TagSuggestIndex(
+                List.of("spring", "Spring-Boot", "jpa", "springfield", "sprint"),
+                List.of(3, 10, 7, 0, 3));
+
+        assertThat(index.suggest("spr", 10)).containsExactly("Spring-Boot", "spring", "sprint", "springfield");
+        assertThat(index.suggest("SPRING", 2)).containsExactly("Spring-Boot", "spring");
+        assertThat(index.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("태그 추가와 인기도 변경 반영")
+    void add_and_adjustPopularity() {
+        TagSuggestIndex index = new TagSuggestIndex(List.of("spring"), List.of(1));
+
+        assertThat(index.add("springfield", 0)).isTrue();
+        assertThat(index.add("Spring", 0)).isFalse();
+        index.adjustPopularity("springfield", 2);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.suggest("spring", 10)).containsExactly("springfield", "spring");
+        assertThat(index.suggest("spring", 0)).isEmpty();
+        assertThat(index.suggest("spring", -1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("추가한 태그가 합쳐지기 전과 후 모두 전체를 정렬한 결과와 같다")
+    void add_sameAsSorting() {
+        Random random = new Random(42);
+        List<String> titles = new ArrayList<>();
+        List<Integer> popularity = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            titles.add(randomTitle(random));
+            popularity.add(random.nextInt(20));
+        }
+        TagSuggestIndex index = new TagSuggestIndex(titles, popularity);
+        Map<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < titles.size(); i++) {
+            expected.putIfAbsent(titles.get(i), popularity.get(i));
+        }
+
+        for (int i = 0; i < 3 * TagSuggestIndex.MIN_PENDING; i++) {
+            String title = randomTitle(random);
+            assertThat(index.add(title, 0)).isEqualTo(expected.putIfAbsent(title, 0) == null);
+            String used = i % 2 == 0 ? title : titles.get(random.nextInt(titles.size()));
+            int delta = random.nextInt(30);
+            index.adjustPopularity(used, delta);
+            expected.computeIfPresent(used, (key, value) -> value + delta);
+
+            for (String prefix : List.of("", "a", "m", title.substring(0, 2))) {
+                assertThat(index.suggest(prefix, 10)).as(prefix).isEqualTo(expected.entrySet().stream()
+                        .filter(entry -> entry.getKey().startsWith(prefix))
+                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                        .limit(10)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList()));
+            }
+        }
+        assertThat(index.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("벤치마크 - 태그 100만개에서 접두어 조회")
+    void benchmark_oneMillionTags() {
+        Random random = new Random(42);
+        List<String> titles = new ArrayList<>();
+        List<Integer> popularity = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            titles.add(randomTitle(random));
+            popularity.add(random.nextInt(10_000));
+        }
+        TagSuggestIndex index = new TagSuggestIndex(titles, popularity);
+
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            prefixes.add(randomTitle(random).substring(0, 1 + random.nextInt(3)));
+        }
+        prefixes.forEach(prefix -> index.suggest(prefix, TagSuggestService.DEFAULT_LIMIT));
+
+        long start = System.nanoTime();
+        for (String prefix : prefixes) {
+            index.suggest(prefix, TagSuggestService.DEFAULT_LIMIT);
+        }
+        long averageNanos = (System.nanoTime() - start) / prefixes.size();
+
+        // 한 글자 접두어처럼 구간이 넓어도 상위 N 개만 꺼내므로 1ms 안에 끝나야 한다.
+        assertThat(averageNanos).isLessThan(1_000_000);
+    }
+
+    private String randomTitle(Random random) {
+        int length = 4 + random.nextInt(12);
+        StringBuilder title = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            title.append((char) ('a' + random.nextInt(26)));
+        }
+        return title.toString();
+    }
+}
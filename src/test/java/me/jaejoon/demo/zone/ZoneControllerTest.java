@@ -0,0 +1,43 @@
+package me.jaejoon.demo.zone;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ZoneControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @WithMockUser
+    @DisplayName("지역 검색 - 초성")
+    void search_initials() throws Exception {
+        mockMvc.perform(get("/zones/search").param("q", "ㅅㅇ"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasItem("Seoul(서울특별시)/none")))
+                .andExpect(jsonPath("$", hasItem("Suwon(수원시)/Gyeonggi")));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("지역 검색 - 영문")
+    void search_romanized() throws Exception {
+        mockMvc.perform(get("/zones/search").param("q", "asa").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]").value("Asan(아산시)/South Chungcheong"));
+    }
+}
@@ -0,0 +1,93 @@
+package me.jaejoon.demo.zone;
+
+import me.jaejoon.demo.domain.Zone;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZoneSearchIndexTest {
+
+    private static final String SEOUL = "Seoul(서울특별시)/none";
+    private static final String SUWON = "Suwon(수원시)/Gyeonggi";
+    private static final String BUSAN = "Busan(부산광역시)/none";
+
+    private final ZoneSearchIndex index = new ZoneSearchIndex(List.of(
+            zone("Seoul", "서울특별시", "none"),
+            zone("Suwon", "수원시", "Gyeonggi"),
+            zone("Busan", "부산광역시", "none"),
+            zone("Bucheon", "부천시", "Gyeonggi")));
+
+    @Test
+    @DisplayName("한글 이름 접두어")
+    void search_prefix() {
+        assertThat(index.search("서울", 10)).containsExactly(SEOUL);
+        assertThat(index.search("부", 10)).containsExactly(BUSAN, "Bucheon(부천시)/Gyeonggi");
+    }
+
+    @Test
+    @DisplayName("초성")
+    void search_initials() {
+        assertThat(index.search("ㅅㅇ", 10)).containsExactly(SEOUL, SUWON);
+        assertThat(index.search("ㅅㅇㅌ", 10)).containsExactly(SEOUL);
+        assertThat(index.search("ㅂㅅ", 10)).containsExactly(BUSAN);
+        assertThat(index.search("수ㅇ", 10)).containsExactly(SUWON);
+    }
+
+    @Test
+    @DisplayName("입력 중인 마지막 글자")
+    void search_composing() {
+        assertThat(index.search("부사", 10)).containsExactly(BUSAN);
+        assertThat(index.search("성", 10)).containsExactly(SEOUL);
+    }
+
+    @Test
+    @DisplayName("영문 이름 접두어")
+    void search_romanized() {
+        assertThat(index.search("su", 10)).containsExactly(SUWON);
+        assertThat(index.search("BU", 1)).hasSize(1);
+        assertThat(index.search("x", 10)).isEmpty();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("벤치마크 - 전국 단위 5000개 지역")
+    void benchmark_nationwide() {
+        Random random = new Random(42);
+        List<Zone> zones = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String localName = randomHangul(random, 2 + random.nextInt(3)) + "동";
+            zones.add(zone("zone" + i, localName, "province" + random.nextInt(17)));
+        }
+        ZoneSearchIndex index = new ZoneSearchIndex(zones);
+
+        List<String> queries = List.of("ㄱ", "ㅅㅇ", "가", "서우", "z", "zone12", "ㅎㄴ");
+        for (int i = 0; i < 1_000; i++) {
+            queries.forEach(query -> index.search(query, ZoneSearchService.DEFAULT_LIMIT));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            queries.forEach(query -> index.search(query, ZoneSearchService.DEFAULT_LIMIT));
+        }
+        long averageNanos = (System.nanoTime() - start) / (10_000L * queries.size());
+
+        assertThat(averageNanos).isLessThan(1_000_000);
+    }
+
+    private Zone zone(String city, String localName, String province) {
+        return Zone.builder().city(city).localNameOfCity(localName).province(province).build();
+    }
+
+    private String randomHangul(Random random, int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('가' + random.nextInt('힣' - '가' + 1)));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package me.jaejoon.demo.zone;
+
+import me.jaejoon.demo.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 지역 적재는 자기 트랜잭션으로 커밋하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+class ZoneServiceTest {
+
+    static final String TEST_CSV = "zones_test.csv";
+
+    @Autowired
+    ZoneService zoneService;
+
+    @Autowired
+    ZoneRepository zoneRepository;
+
+    @Autowired
+    ZoneSearchService zoneSearchService;
+
+    @Autowired
+    ReferenceDataVersionRepository referenceDataVersionRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from zone where city = 'Testcity'");
+        referenceDataVersionRepository.findById(TEST_CSV).ifPresent(referenceDataVersionRepository::delete);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("시작할 때 지역 파일을 다 넣고, 같은 파일은 checksum 만 확인하고 넘어간다")
+    void load_sameChecksum() {
+        long zones = zoneRepository.count();
+        assertThat(zones).isEqualTo(85);
+
+        queryCounter.reset();
+        assertThat(zoneService.load(new ClassPathResource(ZoneService.ZONES_CSV))).isZero();
+
+        assertThat(queryCounter.getStatementCount()).isEqualTo(1);
+        assertThat(zoneRepository.count()).isEqualTo(zones);
+    }
+
+    @Test
+    @DisplayName("파일이 바뀌면 새 지역만 넣고 검색 색인을 다시 만든다")
+    void load_changedFile() {
+        long zones = zoneRepository.count();
+        assertThat(zoneSearchService.search("Testcity", 10)).isEmpty();
+
+        int inserted = zoneService.load(csv("Andong,안동시,North Gyeongsang\nTestcity,테스트시,Test Province\n"));
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(zoneRepository.count()).isEqualTo(zones + 1);
+        assertThat(zoneRepository.findByCityAndProvince("Testcity", "Test Province").getLocalNameOfCity()).isEqualTo("테스트시");
+        assertThat(zoneSearchService.search("Testcity", 10)).containsExactly("Testcity(테스트시)/Test Province");
+        assertThat(zoneService.load(csv("Andong,안동시,North Gyeongsang\nTestcity,테스트시,Test Province\n"))).isZero();
+    }
+
+    private Resource csv(String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return TEST_CSV;
+            }
+        };
+    }
+}